@@ -5,8 +5,16 @@ import net.dv8tion.jda.api.JDA;
 import net.dv8tion.jda.api.JDABuilder;
 import net.dv8tion.jda.api.requests.GatewayIntent;
 import org.action.util.ActionExecution;
+import org.action.util.IndexingMetrics;
 import org.apache.ibatis.jdbc.ScriptRunner;
+import org.database.BulkWriter;
+import org.database.DatabaseExecutor;
+import org.database.QueryCatalog;
+import org.database.dto.GuildDto;
+import org.database.dto.QuoteDto;
+import org.database.dto.UserDto;
 import org.hibernate.Session;
+import org.listener.MessageReplicationListener;
 import org.hibernate.SessionFactory;
 import org.hibernate.Transaction;
 import org.hibernate.cfg.Configuration;
@@ -37,6 +45,10 @@ public class Main {
         );
         configuration.setProperty("hibernate.hikari.dataSource.user", Main.DOTENV.get("DATABASE_USER"));
         configuration.setProperty("hibernate.hikari.dataSource.password", Main.DOTENV.get("DATABASE_PASSWORD"));
+        // pool covers both database executors at full load, bulk work cannot take connections reserved for commands
+        configuration.setProperty("hibernate.hikari.maximumPoolSize", String.valueOf(DatabaseExecutor.getRequiredPoolSize()));
+        // entity batches and the bulk writer flush at the same size
+        configuration.setProperty("hibernate.jdbc.batch_size", String.valueOf(BulkWriter.BATCH_SIZE));
         DATABASE_SESSION_FACTORY = configuration.buildSessionFactory();
         JDA_API = JDABuilder.createDefault(Main.DOTENV.get("TOKEN"))
                 .enableIntents(GatewayIntent.MESSAGE_CONTENT)
@@ -50,8 +62,11 @@ public class Main {
 
         Main.parseCommandLineArguments(args);
         Main.initializeDatabase();
+        IndexingMetrics.register();
+        QueryCatalog.register();
 
         Main.JDA_API.addEventListener(new ActionExecution());
+        Main.JDA_API.addEventListener(new MessageReplicationListener());
     }
 
     private static void parseCommandLineArguments(String[] arguments) {
@@ -74,6 +89,10 @@ public class Main {
                     Main.LOGGER.error("Could not run database initialization script: \"{}\"", exception.getMessage());
                 }
             });
+
+            GuildDto.loadKnownGuilds(session);
+            UserDto.loadKnownUsers(session);
+            QuoteDto.loadSearchIndexes(session);
         } finally {
             transaction.commit();
             session.close();
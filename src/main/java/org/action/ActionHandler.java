@@ -1,6 +1,7 @@
 package org.action;
 
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import org.database.UnitOfWork;
 import org.parsing.Modifier;
 import org.utility.Helper;
 import org.utility.ProcessingContext;
@@ -25,7 +26,7 @@ public abstract class ActionHandler {
     }
 
     public abstract boolean mentionsAllowed();
-    public abstract void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext);
+    public abstract void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork);
     protected abstract Class<? extends Enum<?>> getModifierEnumClass();
 
     public Set<String> getPossibleModifiers() {
@@ -1,6 +1,7 @@
 package org.action;
 
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.MessageHistory;
 import net.dv8tion.jda.api.entities.MessageReaction;
 import net.dv8tion.jda.api.entities.User;
 import net.dv8tion.jda.api.entities.channel.Channel;
@@ -8,177 +9,377 @@ import net.dv8tion.jda.api.entities.channel.attribute.IThreadContainer;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
-import net.dv8tion.jda.api.entities.emoji.CustomEmoji;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.requests.RestAction;
 import org.Main;
+import org.action.util.IndexingStatistics;
+import org.database.BulkWriter;
+import org.database.DatabaseExecutor;
+import org.database.EmojiCollector;
+import org.database.UnitOfWork;
 import org.database.dto.*;
 import org.exception.CustomException;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
 import org.hibernate.Transaction;
 import org.parsing.ChatCommand;
 import org.parsing.Modifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.utility.Check;
 import org.utility.Helper;
 import org.utility.ProcessingContext;
 import org.utility.CommunicationStream;
 
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public class Index extends ActionHandler {
-    private static final Map<String, Index.IndexingJob> INDEXING_JOBS;
+    private static final Logger LOGGER;
+
+    private static final Map<Long, Index.IndexingJob> INDEXING_JOBS;
+    private static final int CHANNEL_CONCURRENCY;
+    private static final ExecutorService TRANSFORM_EXECUTOR;
+    private static final Executor PERSIST_EXECUTOR;
 
     static {
+        LOGGER = LoggerFactory.getLogger(Index.class);
+
         INDEXING_JOBS = Collections.synchronizedMap(new HashMap<>());
+        CHANNEL_CONCURRENCY = Integer.parseInt(Main.DOTENV.get("INDEXING_CHANNEL_CONCURRENCY", "3"));
+        int pipelineQueueSize = Integer.parseInt(Main.DOTENV.get("INDEXING_PIPELINE_QUEUE_SIZE", "256"));
+        // a full pipeline slows down the fetching threads instead of dropping pages
+        TRANSFORM_EXECUTOR = new ThreadPoolExecutor(
+                1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(pipelineQueueSize), new ThreadPoolExecutor.CallerRunsPolicy()
+        );
+        // indexing writes are limited to the bulk database pool so that interactive commands are not starved
+        PERSIST_EXECUTOR = DatabaseExecutor.getDeferringExecutor(DatabaseExecutor.Workload.BULK);
 
         ActionHandler.ACTION_MODIFIERS.put(
                 Index.ActionModifier.CHANNEL,
                 new Modifier<>(Helper.EmptyEnum.class, null, true, false, false, false, null, null)
         );
+        ActionHandler.ACTION_MODIFIERS.put(
+                Index.ActionModifier.REBUILD,
+                new Modifier<>(Helper.EmptyEnum.class, null, false, false, false, true, null, null)
+        );
+        ActionHandler.ACTION_MODIFIERS.put(
+                Index.ActionModifier.STATUS,
+                new Modifier<>(Helper.EmptyEnum.class, null, false, false, false, true, null, null)
+        );
     }
 
-    private static void addIndexingJob(String snowflakeGuild, MessageChannel sourceChannel, List<MessageChannel> serverChannelsToIndex) {
-        Index.INDEXING_JOBS.put(snowflakeGuild, new Index.IndexingJob(sourceChannel, serverChannelsToIndex));
+    private static void addIndexingJob(
+            long snowflakeGuild, MessageChannel sourceChannel, List<MessageChannel> serverChannelsToIndex, boolean rebuild
+    ) {
+        Index.INDEXING_JOBS.put(snowflakeGuild, new Index.IndexingJob(sourceChannel, serverChannelsToIndex, rebuild));
     }
 
-    private static void markIndexingOfChannelDone(MessageChannel channelToMark, String snowflakeGuild) {
+    private static void startQueuedChannels(long snowflakeGuild) {
         Index.IndexingJob indexingJob = Index.INDEXING_JOBS.get(snowflakeGuild);
+        if (indexingJob == null) {
+            return;
+        }
+
+        List<MessageChannel> channelsToStart;
         synchronized (indexingJob) {
-            Index.IndexingJob.IndexedChannel channel = indexingJob.findChannel(channelToMark.getId());
-            channel.setIndexingFinished();
+            channelsToStart = indexingJob.pollChannelsToStart(Index.CHANNEL_CONCURRENCY);
         }
+
+        channelsToStart.forEach(channel -> Index.indexChannel(channel, snowflakeGuild, indexingJob.rebuild));
     }
 
-    private static boolean indexingFinished(String snowflakeGuild) {
-        Index.IndexingJob indexingJob = Index.INDEXING_JOBS.get(snowflakeGuild);
-        synchronized (indexingJob) {
-            return indexingJob.indexingFinished();
+    private static void finishChannel(MessageChannel channel, long snowflakeGuild) {
+        // marking the channel, checking the job and removing it happen as one step, the last channel finalizes exactly once
+        List<Index.IndexingJob> finishedIndexingJobs = new ArrayList<>(1);
+        Index.IndexingJob runningIndexingJob = Index.INDEXING_JOBS.computeIfPresent(snowflakeGuild, (_, indexingJob) -> {
+            synchronized (indexingJob) {
+                Index.markIndexingOfChannelDone(indexingJob, channel);
+                if (indexingJob.indexingFinished()) {
+                    finishedIndexingJobs.add(indexingJob);
+                    return null;
+                }
+
+                return indexingJob;
+            }
+        });
+
+        if (runningIndexingJob != null) {
+            // freed slot is taken by the next queued channel
+            Index.startQueuedChannels(snowflakeGuild);
+        } else if (!finishedIndexingJobs.isEmpty()) {
+            Index.finalizeIndexing(finishedIndexingJobs.getFirst());
         }
     }
 
-    private static void finalizeIndexing(String snowflakeGuild) {
-        IndexingJob finishedIndexingJob = Index.INDEXING_JOBS.remove(snowflakeGuild);
+    private static void markIndexingOfChannelDone(Index.IndexingJob indexingJob, MessageChannel channelToMark) {
+        Index.IndexingJob.IndexedChannel channel = indexingJob.findChannel(channelToMark.getIdLong());
+        channel.setIndexingFinished();
+        channel.statistics.finish();
+        --indexingJob.runningChannels;
+    }
 
+    private static void finalizeIndexing(Index.IndexingJob finishedIndexingJob) {
         MessageChannel sourceChannel = finishedIndexingJob.sourceChannel;
         String stringifiedChannels = Helper.stringifyCollection(finishedIndexingJob.indexedChannels, Index.IndexingJob.IndexedChannel::getChannelName, true);
 
         CommunicationStream.returnResponse(sourceChannel, "Indexing finished for channels: " + stringifiedChannels);
+        finishedIndexingJob.indexedChannels.forEach(indexedChannel ->
+                Index.LOGGER.info("Indexing finished for channel {}", indexedChannel.describe())
+        );
     }
 
-    private static EmojiDto retrieveEmojiDto(MessageReaction reaction, String snowflakeGuild, Session session) {
-        EmojiDto emojiDto;
+    private static IndexingStatistics getChannelStatistics(long snowflakeGuild, MessageChannel channel) {
+        Index.IndexingJob indexingJob = Index.INDEXING_JOBS.get(snowflakeGuild);
+        synchronized (indexingJob) {
+            return indexingJob.findChannel(channel.getIdLong()).statistics;
+        }
+    }
 
-        if (Helper.isGuildEmoji(reaction) && !GuildEmojiDto.guildEmojiExists(reaction.getEmoji().getName(), snowflakeGuild, session)) {
-            emojiDto = new EmojiDto(reaction.getEmoji().getName());
-            session.persist(emojiDto);
+    private static void reportIndexingStatus(long snowflakeGuild, ProcessingContext processingContext) {
+        Index.IndexingJob indexingJob = Index.INDEXING_JOBS.get(snowflakeGuild);
+        if (indexingJob == null) {
+            processingContext.addMessages("No indexing is in progress for this server", ProcessingContext.MessageType.INFO_RESULT);
+            return;
+        }
 
-            CustomEmoji guildReaction = (CustomEmoji)reaction.getEmoji();
-            GuildEmojiDto guildEmojiDto = new GuildEmojiDto(
-                    emojiDto.getIdEmoji(), reaction.getGuild().getId(), guildReaction.getId(), guildReaction.isAnimated()
-            );
-            session.persist(guildEmojiDto);
-        } else if (!EmojiDto.emojiExists(reaction.getEmoji().getName(), session)) {
-            emojiDto = new EmojiDto(reaction.getEmoji().getName());
-            session.persist(emojiDto);
-        } else {
-            // Emoji already exists
-            if (Helper.isGuildEmoji(reaction)) {
-                GuildEmojiDto guildEmojiDto = GuildEmojiDto.getGuildEmojiDtoByEmoji(reaction.getEmoji().getName(), snowflakeGuild, session);
-                emojiDto = EmojiDto.getEmojiDtoByIdEmoji(guildEmojiDto.getIdEmoji(), session);
-            } else {
-                List<EmojiDto> emojis = EmojiDto.getEmojiDtosByEmoji(reaction.getEmoji().getName(), session);
-                assert emojis.size() == 1;
-                emojiDto = emojis.getFirst();
-            }
+        List<String> channelsStatus;
+        synchronized (indexingJob) {
+            channelsStatus = indexingJob.indexedChannels.stream()
+                    .map(Index.IndexingJob.IndexedChannel::describe)
+                    .toList();
         }
 
-        return emojiDto;
+        processingContext.addMessages(
+                "Indexing status:\n" + String.join("\n", channelsStatus), ProcessingContext.MessageType.INFO_RESULT
+        );
     }
 
-    private static void processReaction(Message message, MessageReaction reaction, List<User> users) {
+    private static void processReactions(
+            long snowflakeGuild, IndexingStatistics statistics, List<Index.PageReaction> pageReactions, List<List<User>> usersPerReaction
+    ) {
+        long writeStartNanos = System.nanoTime();
+        EmojiCollector.acquireEmojiUsage();
         Session session = Main.DATABASE_SESSION_FACTORY.openSession();
         Transaction transaction = session.beginTransaction();
 
         try {
-            EmojiDto emojiDto = Index.retrieveEmojiDto(reaction, message.getGuild().getId(), session);
+            // emojis and users repeat a lot within a page, each one is resolved only once
+            Map<String, Long> idsEmojis = new HashMap<>();
+            Map<Long, UserDto> userDtos = new LinkedHashMap<>();
+            List<ReactionDto> reactionDtos = new ArrayList<>();
+
+            for (int i = 0; i < pageReactions.size(); ++i) {
+                MessageReaction reaction = pageReactions.get(i).reaction();
+                List<User> users = usersPerReaction.get(i);
+                if (users.isEmpty()) {
+                    continue;
+                }
 
-            for (User user : users) {
-                UserDto.refreshUser(user.getId(), user.isBot(), session);
-                ReactionDto reactionDto = new ReactionDto(message.getId(), user.getId(), emojiDto.getIdEmoji());
-                session.persist(reactionDto);
+                long idEmoji = idsEmojis.computeIfAbsent(
+                        reaction.getEmoji().getAsReactionCode(), _ -> Helper.retrieveIdEmoji(reaction.getEmoji(), snowflakeGuild, session)
+                );
+                for (User user : users) {
+                    userDtos.putIfAbsent(user.getIdLong(), new UserDto(user.getIdLong(), user.isBot()));
+                    reactionDtos.add(new ReactionDto(pageReactions.get(i).message().getIdLong(), user.getIdLong(), idEmoji));
+                }
             }
+
+            session.flush();
+            BulkWriter.insertUsers(userDtos.values(), session);
+            BulkWriter.insertReactions(reactionDtos, session);
+            statistics.recordReactions(reactionDtos.size());
         } finally {
             transaction.commit();
             session.close();
+            EmojiCollector.releaseEmojiUsage();
+            statistics.recordDatabaseWrite(System.nanoTime() - writeStartNanos);
         }
     }
 
-    private static void processMessages(TextChannelMessages channelMessages) {
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
+    private static CompletableFuture<Void> retrieveReactions(Index.TextChannelMessages channelMessages) {
+        List<Index.PageReaction> pageReactions = new ArrayList<>();
+        channelMessages.messages.forEach(message -> message.getReactions().forEach(reaction ->
+                pageReactions.add(new Index.PageReaction(message, reaction))
+        ));
+        if (pageReactions.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // reaction whose users cannot be retrieved is skipped, it must not discard the other reactions of the page
+        AtomicInteger failedReactionsCount = new AtomicInteger();
+        List<RestAction<List<User>>> retrieveUsersActions = pageReactions.stream()
+                .<RestAction<List<User>>>map(pageReaction -> pageReaction.reaction().retrieveUsers().onErrorMap(_ -> {
+                    failedReactionsCount.incrementAndGet();
+                    return List.of();
+                }))
+                .toList();
+        long requestStartNanos = System.nanoTime();
+        return RestAction.allOf(retrieveUsersActions).submit()
+                // REST wait is taken on the completing JDA thread, time spent queued for the database is not counted
+                .whenComplete((_, _) -> channelMessages.cursor.statistics.recordRestWait(System.nanoTime() - requestStartNanos))
+                .thenAcceptAsync(usersPerReaction -> {
+                    if (failedReactionsCount.get() > 0) {
+                        channelMessages.cursor.statistics.recordFailedReactions(failedReactionsCount.get());
+                        Index.LOGGER.warn(
+                                "Could not retrieve users of {} reactions in channel \"{}\"", failedReactionsCount.get(), channelMessages.cursor.messageChannel.getName()
+                        );
+                    }
+                    Index.processReactions(channelMessages.cursor.snowflakeGuild, channelMessages.cursor.statistics, pageReactions, usersPerReaction);
+                }, Index.PERSIST_EXECUTOR)
+                .whenComplete((_, throwable) -> {
+                    if (throwable != null) {
+                        Index.LOGGER.error(
+                                "Could not index reactions in channel \"{}\": \"{}\"", channelMessages.cursor.messageChannel.getName(), throwable.getMessage()
+                        );
+                    }
+                });
+    }
+
+    private static Index.TextChannelMessages transformMessages(Index.ChannelCursor cursor, List<Message> retrievedHistory) {
+        List<Message> messages = new ArrayList<>(retrievedHistory);
+        Collections.reverse(messages);
+
+        Map<Long, UserDto> authorDtos = new LinkedHashMap<>();
+        List<MessageDto> messageDtos = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            authorDtos.putIfAbsent(message.getAuthor().getIdLong(), new UserDto(message.getAuthor().getIdLong(), message.getAuthor().isBot()));
+            messageDtos.add(new MessageDto(
+                    message.getIdLong(), message.getAuthor().getIdLong(), cursor.messageChannel.getIdLong(), message.getContentRaw()
+            ));
+        }
+
+        if (!messages.isEmpty()) {
+            cursor.statistics.recordPage(messages.size(), messages.getFirst().getIdLong(), messages.getLast().getIdLong());
+        }
+        return new Index.TextChannelMessages(cursor, messages, authorDtos.values(), messageDtos);
+    }
+
+    private static void persistMessages(Index.TextChannelMessages channelMessages) {
+        long writeStartNanos = System.nanoTime();
+        StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
         Transaction transaction = session.beginTransaction();
 
         try {
-            for (Message message : channelMessages.messages) {
-                MessageDto messageDto = new MessageDto(message.getId(), message.getAuthor().getId(), channelMessages.messageChannel.getId(), message.getContentRaw());
-                session.persist(messageDto);
-                session.flush();
-
-                List<MessageReaction> reactions = message.getReactions();
-                reactions.forEach(reaction -> reaction.retrieveUsers().queue(users -> {
-                    if (!users.isEmpty()) {
-                        Index.processReaction(message, reaction, users);
-                    }
-                }));
-            }
+            BulkWriter.insertUsers(channelMessages.authorDtos, session);
+            BulkWriter.insertMessages(channelMessages.messageDtos, session);
         } finally {
             transaction.commit();
             session.close();
+            channelMessages.cursor.statistics.recordDatabaseWrite(System.nanoTime() - writeStartNanos);
         }
-
-        Message latestProcessedMessage = channelMessages.messages.getLast();
-        channelMessages.messageChannel.getHistoryAfter(latestProcessedMessage.getId(), 100).queue(response -> {
-            List<Message> messages = new ArrayList<>(response.getRetrievedHistory());
-            if (!messages.isEmpty()) {
-                Collections.reverse(messages);
-                Index.processMessages(new Index.TextChannelMessages(
-                        channelMessages.snowflakeGuild, channelMessages.messageChannel, messages)
-                );
-            } else {
-                // No more messages to process
-                Index.markIndexingOfChannelDone(channelMessages.messageChannel, channelMessages.snowflakeGuild);
-                if (Index.indexingFinished(channelMessages.snowflakeGuild)) {
-                    Index.finalizeIndexing(channelMessages.snowflakeGuild);
-                }
-            }
-        });
     }
 
-    private static void indexChannel(MessageChannel channel, String snowflakeGuild) {
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
+    private static void advanceWatermark(Index.TextChannelMessages channelMessages) {
+        long writeStartNanos = System.nanoTime();
+        StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
         Transaction transaction = session.beginTransaction();
 
         try {
-            MessageDto.purgeChannelData(channel.getId(), snowflakeGuild, session);
+            ChannelWatermarkDto.advanceWatermark(
+                    channelMessages.cursor.messageChannel.getIdLong(), channelMessages.cursor.snowflakeGuild,
+                    channelMessages.messages.getLast().getIdLong(), session
+            );
         } finally {
             transaction.commit();
             session.close();
+            channelMessages.cursor.statistics.recordDatabaseWrite(System.nanoTime() - writeStartNanos);
         }
+    }
 
+    private static void fetchMessages(
+            Index.ChannelCursor cursor, Long snowflakeAfter, CompletableFuture<Void> previousPagePersisted, CompletableFuture<Void> previousPageIndexed
+    ) {
+        MessageChannel channel = cursor.messageChannel;
+        RestAction<MessageHistory> historyAction = snowflakeAfter == null
+                ? channel.getHistoryFromBeginning(100)
+                : channel.getHistoryAfter(snowflakeAfter, 100);
+
+        // fetch, transform and persist run on separate threads, JDA callback threads only hand the page over
+        long requestStartNanos = System.nanoTime();
+        historyAction.submit()
+                .whenComplete((_, _) -> cursor.statistics.recordRestWait(System.nanoTime() - requestStartNanos))
+                .thenApplyAsync(history -> Index.transformMessages(cursor, history.getRetrievedHistory()), Index.TRANSFORM_EXECUTOR)
+                .thenCombine(previousPagePersisted, (channelMessages, _) -> channelMessages)
+                .thenAcceptAsync(channelMessages -> {
+                    if (channelMessages.messages.isEmpty()) {
+                        // No more messages to process, the channel is done once the reactions of earlier pages are written
+                        previousPageIndexed.whenComplete((_, _) -> Index.finishChannel(channel, cursor.snowflakeGuild));
+                        return;
+                    }
 
-        channel.getHistory().retrievePast(1).queue(newestMessages -> {
-            if (!newestMessages.isEmpty()) {
-                channel.getHistoryFromBeginning(100).queue(response -> {
-                    List<Message> messages = new ArrayList<>(response.getRetrievedHistory());
-                    Collections.reverse(messages);
-                    Index.processMessages(new Index.TextChannelMessages(snowflakeGuild, channel, messages));
+                    // next page is fetched while this one is written, but only once the reactions of the previous page are done,
+                    // so at most two pages of reactions per channel are in flight
+                    CompletableFuture<Void> pagePersisted = new CompletableFuture<>();
+                    CompletableFuture<Void> pageIndexed = new CompletableFuture<>();
+                    long snowflakeLastMessage = channelMessages.messages.getLast().getIdLong();
+                    previousPageIndexed.whenComplete((_, _) -> Index.fetchMessages(cursor, snowflakeLastMessage, pagePersisted, pageIndexed));
+
+                    try {
+                        Index.persistMessages(channelMessages);
+                        pagePersisted.complete(null);
+                    } catch (RuntimeException exception) {
+                        pagePersisted.completeExceptionally(exception);
+                        previousPageIndexed.whenComplete((_, _) -> pageIndexed.completeExceptionally(exception));
+                        return;
+                    }
+
+                    // watermark covers a page only once its reactions and all earlier pages are committed
+                    Index.retrieveReactions(channelMessages)
+                            .thenCombine(previousPageIndexed, (_, _) -> null)
+                            .thenRun(() -> Index.advanceWatermark(channelMessages))
+                            .whenComplete((_, throwable) -> {
+                                if (throwable == null) {
+                                    pageIndexed.complete(null);
+                                } else {
+                                    pageIndexed.completeExceptionally(throwable);
+                                }
+                            });
+                }, Index.PERSIST_EXECUTOR)
+                .exceptionally(throwable -> {
+                    Index.LOGGER.error("Could not index channel \"{}\": \"{}\"", channel.getName(), throwable.getMessage());
+                    previousPageIndexed.whenComplete((_, _) -> Index.finishChannel(channel, cursor.snowflakeGuild));
+                    return null;
                 });
-            } else {
-                // Channel is empty
-                Index.markIndexingOfChannelDone(channel, snowflakeGuild);
-                if (Index.indexingFinished(snowflakeGuild)) {
-                    Index.finalizeIndexing(snowflakeGuild);
-                }
+    }
+
+    private static Long prepareChannel(MessageChannel channel, boolean rebuild) {
+        Long lastIndexedMessage = null;
+        if (!rebuild) {
+            Session session = Main.DATABASE_SESSION_FACTORY.openSession();
+            Transaction transaction = session.beginTransaction();
+
+            try {
+                lastIndexedMessage = ChannelWatermarkDto.getLastIndexedMessage(channel.getIdLong(), session);
+            } finally {
+                transaction.commit();
+                session.close();
             }
-        });
+        }
+
+        if (lastIndexedMessage == null) {
+            MessageDto.purgeChannelData(channel.getIdLong());
+        }
+
+        return lastIndexedMessage;
+    }
+
+    private static void indexChannel(MessageChannel channel, long snowflakeGuild, boolean rebuild) {
+        IndexingStatistics statistics = Index.getChannelStatistics(snowflakeGuild, channel);
+        Index.ChannelCursor cursor = new Index.ChannelCursor(snowflakeGuild, channel, statistics);
+
+        DatabaseExecutor.supply(DatabaseExecutor.Workload.BULK, () -> Index.prepareChannel(channel, rebuild))
+                .thenAccept(lastIndexedMessage -> {
+                    statistics.start(lastIndexedMessage == null ? 0 : lastIndexedMessage, channel.getLatestMessageIdLong());
+                    // without a watermark the channel is indexed from its beginning, otherwise only newer messages are indexed
+                    Index.fetchMessages(cursor, lastIndexedMessage, CompletableFuture.completedFuture(null), CompletableFuture.completedFuture(null));
+                })
+                .exceptionally(throwable -> {
+                    Index.LOGGER.error("Could not prepare channel \"{}\" for indexing: \"{}\"", channel.getName(), throwable.getMessage());
+                    Index.finishChannel(channel, snowflakeGuild);
+                    return null;
+                });
     }
 
     private static List<MessageChannel> retrieveServerMessageChannels(MessageReceivedEvent event) {
@@ -212,8 +413,13 @@ public class Index extends ActionHandler {
     }
 
     @Override
-    public void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext) {
-        if (Index.INDEXING_JOBS.containsKey(event.getGuild().getId())) {
+    public void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
+        if (chatCommand.isSwitchModifierPresent(Index.ActionModifier.STATUS)) {
+            Index.reportIndexingStatus(event.getGuild().getIdLong(), processingContext);
+            return;
+        }
+
+        if (Index.INDEXING_JOBS.containsKey(event.getGuild().getIdLong())) {
             processingContext.addMessages("Indexing is already in progress for this server", ProcessingContext.MessageType.ERROR);
             return;
         }
@@ -240,10 +446,13 @@ public class Index extends ActionHandler {
                         .toList();
             }
 
-            Index.addIndexingJob(event.getGuild().getId(), event.getChannel(), serverChannelsToIndex);
-            serverChannelsToIndex.forEach(channel -> Index.indexChannel(channel, event.getGuild().getId()));
+            boolean rebuildSwitchPresent = chatCommand.isSwitchModifierPresent(Index.ActionModifier.REBUILD);
+
+            Index.addIndexingJob(event.getGuild().getIdLong(), event.getChannel(), serverChannelsToIndex, rebuildSwitchPresent);
+            Index.startQueuedChannels(event.getGuild().getIdLong());
             processingContext.addMessages(
-                    "Indexing has been started for channels: " + Helper.stringifyCollection(serverChannelsToIndex, MessageChannel::getName, true),
+                    (rebuildSwitchPresent ? "Full reindexing" : "Indexing") + " has been started for channels: "
+                            + Helper.stringifyCollection(serverChannelsToIndex, MessageChannel::getName, true),
                     ProcessingContext.MessageType.INFO_RESULT
             );
         } catch (CustomException exception) {
@@ -256,22 +465,42 @@ public class Index extends ActionHandler {
         return Index.ActionModifier.class;
     }
 
-    public enum ActionModifier { CHANNEL }
+    public enum ActionModifier { CHANNEL, REBUILD, STATUS }
 
-    private record TextChannelMessages(String snowflakeGuild, MessageChannel messageChannel, List<Message> messages) {}
+    private record ChannelCursor(long snowflakeGuild, MessageChannel messageChannel, IndexingStatistics statistics) {}
+    private record TextChannelMessages(
+            Index.ChannelCursor cursor, List<Message> messages, Collection<UserDto> authorDtos, List<MessageDto> messageDtos
+    ) {}
+    private record PageReaction(Message message, MessageReaction reaction) {}
 
     private static class IndexingJob {
         private final MessageChannel sourceChannel;
         private final List<IndexedChannel> indexedChannels;
+        private final Deque<MessageChannel> queuedChannels;
+        private final boolean rebuild;
+        private int runningChannels;
 
-        public IndexingJob(MessageChannel sourceChannel, List<MessageChannel> channelsToIndex) {
+        public IndexingJob(MessageChannel sourceChannel, List<MessageChannel> channelsToIndex, boolean rebuild) {
             this.sourceChannel = sourceChannel;
             this.indexedChannels = channelsToIndex.stream().map(IndexedChannel::new).toList();
+            this.queuedChannels = new ArrayDeque<>(channelsToIndex);
+            this.rebuild = rebuild;
+            this.runningChannels = 0;
+        }
+
+        public List<MessageChannel> pollChannelsToStart(int maximumRunningChannels) {
+            List<MessageChannel> channelsToStart = new ArrayList<>();
+            while (this.runningChannels < maximumRunningChannels && !this.queuedChannels.isEmpty()) {
+                channelsToStart.add(this.queuedChannels.poll());
+                ++this.runningChannels;
+            }
+
+            return channelsToStart;
         }
 
-        public IndexedChannel findChannel(String snowflakeChannel) {
+        public IndexedChannel findChannel(long snowflakeChannel) {
             return this.indexedChannels.stream()
-                    .filter(indexedChannel -> indexedChannel.messageChannel.getId().equals(snowflakeChannel))
+                    .filter(indexedChannel -> indexedChannel.messageChannel.getIdLong() == snowflakeChannel)
                     .findFirst()
                     .orElseThrow();
         }
@@ -282,10 +511,12 @@ public class Index extends ActionHandler {
 
         public static class IndexedChannel {
             private final MessageChannel messageChannel;
+            private final IndexingStatistics statistics;
             private boolean indexingFinished;
 
             public IndexedChannel(MessageChannel messageChannel) {
                 this.messageChannel = messageChannel;
+                this.statistics = new IndexingStatistics();
             }
 
             public void setIndexingFinished() {
@@ -299,6 +530,10 @@ public class Index extends ActionHandler {
             public String getChannelName() {
                 return this.messageChannel.getName();
             }
+
+            public String describe() {
+                return this.statistics.describe(this.getChannelName());
+            }
         }
     }
 }
@@ -4,12 +4,12 @@ import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.*;
 import org.database.DtoWithDistance;
 import org.database.Persistable;
+import org.database.UnitOfWork;
+import org.database.cache.TagCache;
 import org.database.dto.QuoteDto;
-import org.database.dto.QuoteTagDto;
 import org.database.dto.TagDto;
 import org.exception.CustomException;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 import org.hibernate.query.NativeQuery;
 import org.action.util.ActionConfirmation;
 import org.parsing.ChatCommand;
@@ -31,6 +31,10 @@ public class Quote extends ActionHandler {
                 Quote.ActionModifier.TAG,
                 new Modifier<>(Helper.EmptyEnum.class, null, true, false, false, false, null, null)
         );
+        ActionHandler.ACTION_MODIFIERS.put(
+                Quote.ActionModifier.MATCH,
+                new Modifier<>(Quote.MatchArgument.class, Quote.MatchArgument.ANY, false, false, false, false, null, null)
+        );
         ActionHandler.ACTION_MODIFIERS.put(
                 Quote.ActionModifier.ORDER,
                 new Modifier<>(Quote.OrderArgument.class, Quote.OrderArgument.RANDOM, false, false, false, false, null, null)
@@ -87,15 +91,16 @@ public class Quote extends ActionHandler {
     }
 
     @Override
-    public void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext) {
+    public void executeAction(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
         try {
             Quote.TypeArgument typeArgument = chatCommand.getFirstArgumentAsEnum(Quote.ActionModifier.TYPE, Quote.TypeArgument.class, true, processingContext);
 
             switch (typeArgument) {
-                case Quote.TypeArgument.GET_QUOTE -> this.handleGetQuote(event, chatCommand, processingContext);
+                case Quote.TypeArgument.GET_QUOTE -> this.handleGetQuote(event, chatCommand, processingContext, unitOfWork);
                 case Quote.TypeArgument.GET_TAG -> this.handleGetTag(event, chatCommand, processingContext);
-                case Quote.TypeArgument.NEW_QUOTE -> this.handleNewQuote(event, chatCommand, processingContext);
-                case Quote.TypeArgument.NEW_TAG -> this.handleNewTag(event, chatCommand, processingContext);
+                case Quote.TypeArgument.NEW_QUOTE -> this.handleNewQuote(event, chatCommand, processingContext, unitOfWork);
+                case Quote.TypeArgument.NEW_TAG -> this.handleNewTag(event, chatCommand, processingContext, unitOfWork);
+                case Quote.TypeArgument.SEARCH -> this.handleSearch(event, chatCommand, processingContext, unitOfWork);
             }
         } catch (CustomException exception) {
             processingContext.addMessages(exception.getMessage(), ProcessingContext.MessageType.ERROR);
@@ -107,59 +112,69 @@ public class Quote extends ActionHandler {
         return Quote.ActionModifier.class;
     }
 
-    private void handleGetQuote(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext) {
+    private void handleGetQuote(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
         Quote.OrderArgument chatOrder = chatCommand.getFirstArgumentAsEnum(Quote.ActionModifier.ORDER, Quote.OrderArgument.class, true, processingContext);
         final ProcessingContext dummy = new ProcessingContext();
         Set<String> chatTags = chatCommand.getArguments(Quote.ActionModifier.TAG, true, true, dummy).stream()
                 .map(argument -> argument.getTrimmedNormalizedLowercaseUsedValue(processingContext, "tag"))
                 .collect(Collectors.toSet());
+        Quote.MatchArgument chatMatch = chatCommand.getFirstArgumentAsEnum(Quote.ActionModifier.MATCH, Quote.MatchArgument.class, true, processingContext);
         long resultsCount = Quote.getCountModifierArgument(chatCommand, processingContext);
 
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
-
-        try {
-            if (!chatTags.isEmpty()) {
-                List<String> nonExistentTags = TagDto.filterOutExistingTags(chatTags, event.getGuild().getId(), session);
-                Check.isEmpty(nonExistentTags, true, "Non existent tags");
-            }
+        if (!chatTags.isEmpty()) {
+            List<String> nonExistentTags = TagDto.filterOutExistingTags(chatTags, event.getGuild().getIdLong());
+            Check.isEmpty(nonExistentTags, true, "Non existent tags");
+        }
 
-            String sqlOrder = "";
-            switch (chatOrder) {
-                case Quote.OrderArgument.RANDOM -> sqlOrder = "rand()";
-                case Quote.OrderArgument.NEWEST -> sqlOrder = QuoteDto.DATE_MODIFIED_COLUMN_NAME + " desc";
-                case Quote.OrderArgument.OLDEST -> sqlOrder = QuoteDto.DATE_MODIFIED_COLUMN_NAME + " asc";
-                case Quote.OrderArgument.ALPHABETICAL -> sqlOrder = QuoteDto.QUOTE_COLUMN_NAME + " asc";
-                case Quote.OrderArgument.REVERSE_ALPHABETICAL -> sqlOrder = QuoteDto.QUOTE_COLUMN_NAME + " desc";
-            }
+        List<Long> idsTags = chatTags.isEmpty() ? List.of() : TagDto.mapStringTagsToDtos(chatTags, event.getGuild().getIdLong()).stream()
+                .map(TagDto::getIdTag)
+                .toList();
+        boolean matchAllTags = chatMatch == Quote.MatchArgument.ALL;
 
-            String sql = "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
-                    + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild ";
-            if (!chatTags.isEmpty()) {
-                sql += "AND " + QuoteDto.ID_QUOTE_COLUMN_NAME + " IN :p_idsQuotes ";
-            }
-            sql += "ORDER BY " + sqlOrder + " LIMIT :p_resultsCount";
-
-            NativeQuery<QuoteDto> query = session.createNativeQuery(sql, QuoteDto.class)
-                    .setParameter("p_snowflakeGuild", event.getGuild().getId())
-                    .setParameter("p_resultsCount", resultsCount);
-            if (!chatTags.isEmpty()) {
-                List<Long> idsQuotesToUse = QuoteTagDto.findByTags(chatTags, session).stream()
-                        .map(QuoteTagDto::getIdQuote)
-                        .toList();
-                query.setParameter("p_idsQuotes", idsQuotesToUse);
-            }
-            List<QuoteDto> quotes = query.getResultList();
+        Session session = unitOfWork.getSession();
+        List<QuoteDto> quotes;
+        if (chatOrder == Quote.OrderArgument.RANDOM) {
+            // random picks are sampled from the in-memory id directory, only the picked rows are read
+            quotes = QuoteDto.findRandomQuotes(event.getGuild().getIdLong(), idsTags, matchAllTags, resultsCount, session);
+        } else {
+            // tag filter is resolved on the per-tag bitmaps, only the matching ids are sent to the database
+            List<Long> idsQuotesToUse = idsTags.isEmpty()
+                    ? null
+                    : QuoteDto.findIdsQuotesWithTags(event.getGuild().getIdLong(), idsTags, matchAllTags);
 
-            if (quotes.isEmpty()) {
-                processingContext.addMessages("No quotes found", ProcessingContext.MessageType.INFO_RESULT);
+            if (idsQuotesToUse != null && idsQuotesToUse.isEmpty()) {
+                quotes = List.of();
             } else {
-                String message = Quote.processGetQuoteResult(quotes, chatCommand, session);
-                processingContext.addMessages(message, ProcessingContext.MessageType.SUCCESS_RESULT);
+                String sqlOrder = "";
+                switch (chatOrder) {
+                    case Quote.OrderArgument.NEWEST -> sqlOrder = QuoteDto.DATE_MODIFIED_COLUMN_NAME + " desc";
+                    case Quote.OrderArgument.OLDEST -> sqlOrder = QuoteDto.DATE_MODIFIED_COLUMN_NAME + " asc";
+                    case Quote.OrderArgument.ALPHABETICAL -> sqlOrder = QuoteDto.QUOTE_COLUMN_NAME + " asc";
+                    case Quote.OrderArgument.REVERSE_ALPHABETICAL -> sqlOrder = QuoteDto.QUOTE_COLUMN_NAME + " desc";
+                }
+
+                String sql = "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
+                        + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild ";
+                if (idsQuotesToUse != null) {
+                    sql += "AND " + QuoteDto.ID_QUOTE_COLUMN_NAME + " IN :p_idsQuotes ";
+                }
+                sql += "ORDER BY " + sqlOrder + " LIMIT :p_resultsCount";
+
+                NativeQuery<QuoteDto> query = session.createNativeQuery(sql, QuoteDto.class)
+                        .setParameter("p_snowflakeGuild", event.getGuild().getIdLong())
+                        .setParameter("p_resultsCount", resultsCount);
+                if (idsQuotesToUse != null) {
+                    query.setParameter("p_idsQuotes", idsQuotesToUse);
+                }
+                quotes = query.getResultList();
             }
-        } finally {
-          transaction.commit();
-          session.close();
+        }
+
+        if (quotes.isEmpty()) {
+            processingContext.addMessages("No quotes found", ProcessingContext.MessageType.INFO_RESULT);
+        } else {
+            String message = Quote.processGetQuoteResult(quotes, chatCommand, session);
+            processingContext.addMessages(message, ProcessingContext.MessageType.SUCCESS_RESULT);
         }
     }
 
@@ -167,43 +182,44 @@ public class Quote extends ActionHandler {
         Quote.OrderArgument chatOrder = chatCommand.getFirstArgumentAsEnum(Quote.ActionModifier.ORDER, Quote.OrderArgument.class, true, processingContext);
         long resultsCount = Quote.getCountModifierArgument(chatCommand, processingContext);
 
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
-
-        try {
-            String sqlOrder = "";
-            switch (chatOrder) {
-                case Quote.OrderArgument.RANDOM -> sqlOrder = "rand()";
-                case Quote.OrderArgument.NEWEST -> sqlOrder = TagDto.DATE_MODIFIED_COLUMN_NAME + " desc";
-                case Quote.OrderArgument.OLDEST -> sqlOrder = TagDto.DATE_MODIFIED_COLUMN_NAME + " asc";
-                case Quote.OrderArgument.ALPHABETICAL -> sqlOrder = TagDto.TAG_COLUMN_NAME + " asc";
-                case Quote.OrderArgument.REVERSE_ALPHABETICAL -> sqlOrder = TagDto.TAG_COLUMN_NAME + " desc";
-            }
+        // tags are answered from the pre-sorted per-guild snapshot
+        TagCache.Snapshot tagSnapshot = TagDto.getTagSnapshot(event.getGuild().getIdLong());
+        List<TagDto> tags = switch (chatOrder) {
+            case Quote.OrderArgument.RANDOM -> tagSnapshot.getRandomTags(resultsCount);
+            case Quote.OrderArgument.NEWEST -> tagSnapshot.getTagsByDateModified(true, resultsCount);
+            case Quote.OrderArgument.OLDEST -> tagSnapshot.getTagsByDateModified(false, resultsCount);
+            case Quote.OrderArgument.ALPHABETICAL -> tagSnapshot.getTagsByName(false, resultsCount);
+            case Quote.OrderArgument.REVERSE_ALPHABETICAL -> tagSnapshot.getTagsByName(true, resultsCount);
+        };
+
+        if (tags.isEmpty()) {
+            processingContext.addMessages("No tags found", ProcessingContext.MessageType.INFO_RESULT);
+        } else {
+            StringBuilder stringBuilder = new StringBuilder();
+            tags.forEach(tag -> stringBuilder.append("\"").append(tag.getTag()).append("\", "));
+            stringBuilder.setLength(stringBuilder.length() - 2);
+            processingContext.addMessages(stringBuilder.toString(), ProcessingContext.MessageType.SUCCESS_RESULT);
+        }
+    }
 
-            String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                    + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild ORDER BY "
-                    + sqlOrder + " LIMIT :p_resultsCount";
+    private void handleSearch(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
+        String chatQuery = chatCommand.getFirstArgument(Quote.ActionModifier.VALUE, false, true, processingContext)
+                .getTrimmedUsedValue(processingContext, "search query");
+        Check.isNotBlank(chatQuery, true, "Search query", null);
+        long resultsCount = Quote.getCountModifierArgument(chatCommand, processingContext);
 
-            List<TagDto> tags = session.createNativeQuery(sql, TagDto.class)
-                    .setParameter("p_snowflakeGuild", event.getGuild().getId())
-                    .setParameter("p_resultsCount", resultsCount)
-                    .getResultList();
+        Session session = unitOfWork.getSession();
+        List<QuoteDto> quotes = QuoteDto.searchQuotes(chatQuery, event.getGuild().getIdLong(), resultsCount, session);
 
-            if (tags.isEmpty()) {
-                processingContext.addMessages("No tags found", ProcessingContext.MessageType.INFO_RESULT);
-            } else {
-                StringBuilder stringBuilder = new StringBuilder();
-                tags.forEach(tag -> stringBuilder.append("\"").append(tag.getTag()).append("\", "));
-                stringBuilder.setLength(stringBuilder.length() - 2);
-                processingContext.addMessages(stringBuilder.toString(), ProcessingContext.MessageType.SUCCESS_RESULT);
-            }
-        } finally {
-            transaction.commit();
-            session.close();
+        if (quotes.isEmpty()) {
+            processingContext.addMessages("No quotes found", ProcessingContext.MessageType.INFO_RESULT);
+        } else {
+            String message = Quote.processGetQuoteResult(quotes, chatCommand, session);
+            processingContext.addMessages(message, ProcessingContext.MessageType.SUCCESS_RESULT);
         }
     }
 
-    private void handleNewQuote(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext) {
+    private void handleNewQuote(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
         String chatNewQuote = chatCommand.getFirstArgument(Quote.ActionModifier.VALUE, false, true, processingContext)
                 .getTrimmedUsedValue(processingContext, "new quote");
         Check.isNotBlank(chatNewQuote, true, "New quote", null);
@@ -213,50 +229,36 @@ public class Quote extends ActionHandler {
                 .map(argument -> argument.getTrimmedNormalizedLowercaseUsedValue(processingContext, "tag"))
                 .collect(Collectors.toSet());
 
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
-
-        try {
-            Check.isBooleanFalse(
-                    QuoteDto.quoteExists(chatNewQuote, event.getGuild().getId(), session), true, "Quote:\n\"" + chatNewQuote + '\"', "\nalready exists"
-            );
+        Session session = unitOfWork.getSession();
+        Check.isBooleanFalse(
+                QuoteDto.quoteExists(chatNewQuote, event.getGuild().getIdLong(), session), true, "Quote:\n\"" + chatNewQuote + '\"', "\nalready exists"
+        );
 
-            List<String> nonExistentTags = TagDto.filterOutExistingTags(allTags, event.getGuild().getId(), session);
-            Check.isEmpty(nonExistentTags, true, "Non existent tags");
+        List<String> nonExistentTags = TagDto.filterOutExistingTags(allTags, event.getGuild().getIdLong());
+        Check.isEmpty(nonExistentTags, true, "Non existent tags");
 
-            List<TagDto> tagDtos = TagDto.mapStringTagsToDtos(allTags, event.getGuild().getId(), session);
-            QuoteDto newQuote = new QuoteDto(event.getAuthor().getId(), event.getGuild().getId(), chatNewQuote, tagDtos);
-            List<QuoteDto.QuoteDistance> similarQuotes = QuoteDto.findSimilarQuotes(chatNewQuote, event.getGuild().getId(), session);
+        List<TagDto> tagDtos = TagDto.mapStringTagsToDtos(allTags, event.getGuild().getIdLong());
+        QuoteDto newQuote = new QuoteDto(event.getAuthor().getIdLong(), event.getGuild().getIdLong(), chatNewQuote, tagDtos);
+        List<QuoteDto.QuoteDistance> similarQuotes = QuoteDto.findSimilarQuotes(chatNewQuote, event.getGuild().getIdLong(), session);
 
-            Quote.tryToPersistEntity(newQuote, similarQuotes, false, 2, session, event, chatCommand, processingContext);
-        } finally {
-            transaction.commit();
-            session.close();
-        }
+        Quote.tryToPersistEntity(newQuote, similarQuotes, false, 2, session, event, chatCommand, processingContext);
     }
 
-    private void handleNewTag(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext) {
+    private void handleNewTag(MessageReceivedEvent event, ChatCommand chatCommand, ProcessingContext processingContext, UnitOfWork unitOfWork) {
         String chatNewTag = chatCommand.getFirstArgument(Quote.ActionModifier.VALUE, false, true, processingContext)
                 .getTrimmedNormalizedLowercaseUsedValue(processingContext, "new tag");
         Check.isNotBlank(chatNewTag, true, "New tag", null);
         Check.isInRange(chatNewTag.length(), 1, Constants.TAG_MAX_LENGTH, true, "Tag length", null);
 
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
-
-        try {
-            Check.isBooleanFalse(
-                    TagDto.tagExists(chatNewTag, event.getGuild().getId(),session), true, "Tag " + chatNewTag, "already exists"
-            );
+        Check.isBooleanFalse(
+                TagDto.tagExists(chatNewTag, event.getGuild().getIdLong()), true, "Tag " + chatNewTag, "already exists"
+        );
 
-            TagDto newTag = new TagDto(event.getAuthor().getId(), event.getGuild().getId(), chatNewTag);
-            List<TagDto.TagDistance> similarTags = TagDto.findSimilarTags(chatNewTag, event.getGuild().getId(), session);
+        Session session = unitOfWork.getSession();
+        TagDto newTag = new TagDto(event.getAuthor().getIdLong(), event.getGuild().getIdLong(), chatNewTag);
+        List<TagDto.TagDistance> similarTags = TagDto.findSimilarTags(chatNewTag, event.getGuild().getIdLong());
 
-            Quote.tryToPersistEntity(newTag, similarTags, true, 5, session, event, chatCommand, processingContext);
-        } finally {
-            transaction.commit();
-            session.close();
-        }
+        Quote.tryToPersistEntity(newTag, similarTags, true, 5, session, event, chatCommand, processingContext);
     }
 
     private static<T extends Persistable, U extends DtoWithDistance> void tryToPersistEntity(
@@ -344,9 +346,10 @@ public class Quote extends ActionHandler {
         }
     }
 
-    public enum ActionModifier { TYPE, TAG, ORDER, COUNT, VALUE }
+    public enum ActionModifier { TYPE, TAG, MATCH, ORDER, COUNT, VALUE }
 
-    private enum TypeArgument { GET_QUOTE, GET_TAG, NEW_QUOTE, NEW_TAG }
+    private enum TypeArgument { GET_QUOTE, GET_TAG, NEW_QUOTE, NEW_TAG, SEARCH }
+    private enum MatchArgument { ALL, ANY }
     private enum OrderArgument { RANDOM, NEWEST, OLDEST, ALPHABETICAL, REVERSE_ALPHABETICAL }
     private enum CountArgument { ALL }
 }
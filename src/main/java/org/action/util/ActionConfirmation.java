@@ -4,8 +4,7 @@ import net.dv8tion.jda.api.entities.channel.middleman.MessageChannel;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import org.Main;
 import org.database.Persistable;
-import org.hibernate.Session;
-import org.hibernate.Transaction;
+import org.database.UnitOfWork;
 import org.parsing.ChatConfirmation;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,16 +19,16 @@ public class ActionConfirmation extends ActionMessageListener {
     private static final Logger LOGGER;
 
     private static final int CONFIRMATION_TIMEOUT_S;
-    private static final Map<ActionRequest, ScheduledFuture<?>> PENDING_LISTENERS_REMOVALS;
-    private static final Map<ActionRequest, String> GUILD_USER_LOCKS;
+    private static final Map<ActionRequest.RequestKey, ScheduledFuture<?>> PENDING_LISTENERS_REMOVALS;
+    private static final Map<ActionRequest.GuildUserKey, String> GUILD_USER_LOCKS;
     private static final ScheduledExecutorService EXECUTOR_SERVICE;
 
     static {
         LOGGER = LoggerFactory.getLogger(ActionConfirmation.class);
 
         CONFIRMATION_TIMEOUT_S = 20;
-        PENDING_LISTENERS_REMOVALS = Collections.synchronizedMap(new TreeMap<>(new ActionRequest.PendingListenersRemovalsComparator()));
-        GUILD_USER_LOCKS = Collections.synchronizedMap(new TreeMap<>(new ActionRequest.GuildUserLockComparator()));
+        PENDING_LISTENERS_REMOVALS = Collections.synchronizedMap(new HashMap<>());
+        GUILD_USER_LOCKS = Collections.synchronizedMap(new HashMap<>());
 
         ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
         executor.setRemoveOnCancelPolicy(true);
@@ -37,13 +36,13 @@ public class ActionConfirmation extends ActionMessageListener {
         Runtime.getRuntime().addShutdownHook(new Thread(ActionConfirmation.EXECUTOR_SERVICE::shutdownNow));
     }
 
-    private final String channelId;
-    private final String userId;
-    private final String guildId;
+    private final long channelId;
+    private final long userId;
+    private final long guildId;
     private final Persistable objectToStore;
     private Integer attemptsRemaining;
 
-    public ActionConfirmation(String channelId, String userId, String guildId, Persistable objectToStore, Integer attemptsRemaining) {
+    public ActionConfirmation(long channelId, long userId, long guildId, Persistable objectToStore, Integer attemptsRemaining) {
         this.channelId = channelId;
         this.userId = userId;
         this.guildId = guildId;
@@ -56,15 +55,15 @@ public class ActionConfirmation extends ActionMessageListener {
 
         // noinspection SynchronizationOnLocalVariableOrMethodParameter
         synchronized (messageListener) {
-            if (!ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(actionRequest)) {
+            if (!ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(actionRequest.getKey())) {
                 // listener was already removed
                 return;
             }
 
-            assert ActionConfirmation.GUILD_USER_LOCKS.containsKey(actionRequest);
-            ActionConfirmation.GUILD_USER_LOCKS.remove(actionRequest);
+            assert ActionConfirmation.GUILD_USER_LOCKS.containsKey(actionRequest.getGuildUserKey());
+            ActionConfirmation.GUILD_USER_LOCKS.remove(actionRequest.getGuildUserKey());
 
-            ScheduledFuture<?> scheduledFuture = ActionConfirmation.PENDING_LISTENERS_REMOVALS.remove(actionRequest);
+            ScheduledFuture<?> scheduledFuture = ActionConfirmation.PENDING_LISTENERS_REMOVALS.remove(actionRequest.getKey());
             scheduledFuture.cancel(true);
             Main.JDA_API.removeEventListener(messageListener);
         }
@@ -87,36 +86,43 @@ public class ActionConfirmation extends ActionMessageListener {
     }
 
     public static int addConfirmationMessageListener(MessageReceivedEvent event, Persistable objectToStore, Integer attemptsRemaining) {
-        ActionRequest actionRequest = new ActionRequest(event.getChannel().getId(), event.getAuthor().getId(), event.getGuild().getId());
-        assert !ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(actionRequest);
-        assert !ActionConfirmation.GUILD_USER_LOCKS.containsKey(actionRequest);
+        ActionRequest actionRequest = new ActionRequest(event.getChannel().getIdLong(), event.getAuthor().getIdLong(), event.getGuild().getIdLong());
+        assert !ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(actionRequest.getKey());
+        assert !ActionConfirmation.GUILD_USER_LOCKS.containsKey(actionRequest.getGuildUserKey());
 
-        ActionConfirmation actionConfirmationMessageListener =
-                new ActionConfirmation(event.getChannel().getId(), event.getAuthor().getId(), event.getGuild().getId(), objectToStore, attemptsRemaining);
+        ActionConfirmation actionConfirmationMessageListener = new ActionConfirmation(
+                event.getChannel().getIdLong(), event.getAuthor().getIdLong(), event.getGuild().getIdLong(), objectToStore, attemptsRemaining
+        );
 
         Main.JDA_API.addEventListener(actionConfirmationMessageListener);
         ScheduledFuture<?> scheduledFuture = ActionConfirmation.EXECUTOR_SERVICE.schedule(
                 () -> ActionConfirmation.removeConfirmationMessageListenerAfterTimeout(actionConfirmationMessageListener),
                 ActionConfirmation.CONFIRMATION_TIMEOUT_S, TimeUnit.SECONDS
         );
-        ActionConfirmation.PENDING_LISTENERS_REMOVALS.put(actionRequest, scheduledFuture);
-        ActionConfirmation.GUILD_USER_LOCKS.put(actionRequest, event.getChannel().getName());
+        ActionConfirmation.PENDING_LISTENERS_REMOVALS.put(actionRequest.getKey(), scheduledFuture);
+        ActionConfirmation.GUILD_USER_LOCKS.put(actionRequest.getGuildUserKey(), event.getChannel().getName());
 
         return ActionConfirmation.CONFIRMATION_TIMEOUT_S;
     }
 
-    public static boolean confirmationKeyExists(String channelId, String userId) {
-        return ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(new ActionRequest(channelId, userId, null));
+    public static boolean confirmationKeyExists(long channelId, long userId) {
+        return ActionConfirmation.PENDING_LISTENERS_REMOVALS.containsKey(new ActionRequest.RequestKey(channelId, userId));
     }
 
-    public static String getGuildUserLockedChannel(String userId, String channelId) {
-        return ActionConfirmation.GUILD_USER_LOCKS.get(new ActionRequest(null, userId, channelId));
+    public static String getGuildUserLockedChannel(long userId, long guildId) {
+        return ActionConfirmation.GUILD_USER_LOCKS.get(new ActionRequest.GuildUserKey(userId, guildId));
     }
 
     @Override
-    protected boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext) {
-        if (!event.getChannel().getId().equals(this.channelId)
-                || !event.getAuthor().getId().equals(this.userId)) {
+    protected boolean isProcessingCandidate(MessageReceivedEvent event) {
+        return event.getChannel().getIdLong() == this.channelId
+                && event.getAuthor().getIdLong() == this.userId;
+    }
+
+    @Override
+    protected boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext, UnitOfWork unitOfWork) {
+        if (event.getChannel().getIdLong() != this.channelId
+                || event.getAuthor().getIdLong() != this.userId) {
             return false;
         }
 
@@ -136,7 +142,7 @@ public class ActionConfirmation extends ActionMessageListener {
             this.handleDecline(processingContext);
         } else {
             switch (chatConfirmation.getStatus()) {
-                case ChatConfirmation.Status.YES -> this.handleConfirm(processingContext);
+                case ChatConfirmation.Status.YES -> this.handleConfirm(processingContext, unitOfWork);
                 case ChatConfirmation.Status.NO -> this.handleDecline(processingContext);
                 case ChatConfirmation.Status.INVALID -> this.handleInvalidOption(processingContext);
             }
@@ -145,16 +151,11 @@ public class ActionConfirmation extends ActionMessageListener {
         return false;
     }
 
-    private void handleConfirm(ProcessingContext processingContext) {
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
-
+    private void handleConfirm(ProcessingContext processingContext, UnitOfWork unitOfWork) {
         try {
-            this.objectToStore.persist(processingContext, session);
+            this.objectToStore.persist(processingContext, unitOfWork.getSession());
         } finally {
             ActionConfirmation.removeConfirmationMessageListener(this);
-            transaction.commit();
-            session.close();
         }
     }
 
@@ -183,15 +184,15 @@ public class ActionConfirmation extends ActionMessageListener {
         processingContext.addMessages(message, ProcessingContext.MessageType.ERROR);
     }
 
-    public String getChannelId() {
+    public long getChannelId() {
         return this.channelId;
     }
 
-    public String getUserId() {
+    public long getUserId() {
         return this.userId;
     }
 
-    public String getGuildId() {
+    public long getGuildId() {
         return this.guildId;
     }
 }
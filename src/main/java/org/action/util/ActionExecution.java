@@ -5,6 +5,7 @@ import org.action.Action;
 import org.action.ActionHandler;
 import org.action.Index;
 import org.action.Quote;
+import org.database.UnitOfWork;
 import org.parsing.ChatCommand;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -20,6 +21,7 @@ public class ActionExecution extends ActionMessageListener {
     private static final Logger LOGGER;
 
     private static final Map<String, ActionHandler> REGISTERED_ACTION_HANDLERS;
+    private static final String[] REGISTERED_ACTION_NAMES;
 
     static {
         LOGGER = LoggerFactory.getLogger(ActionExecution.class);
@@ -28,6 +30,7 @@ public class ActionExecution extends ActionMessageListener {
                 Action.INDEX.toString().toUpperCase(), new Index(),
                 Action.QUOTE.toString().toUpperCase(), new Quote()
         );
+        REGISTERED_ACTION_NAMES = ActionExecution.REGISTERED_ACTION_HANDLERS.keySet().toArray(String[]::new);
     }
 
     private static void warnIfUnusedModifiersOrArgumentsExist(ChatCommand chatCommand, ProcessingContext processingContext) {
@@ -119,8 +122,13 @@ public class ActionExecution extends ActionMessageListener {
     }
 
     @Override
-    public boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext) {
-        if (ActionConfirmation.confirmationKeyExists(event.getChannel().getId(), event.getAuthor().getId())) {
+    protected boolean isProcessingCandidate(MessageReceivedEvent event) {
+        return ChatCommand.isActionCandidate(event.getMessage().getContentRaw(), ActionExecution.REGISTERED_ACTION_NAMES);
+    }
+
+    @Override
+    public boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext, UnitOfWork unitOfWork) {
+        if (ActionConfirmation.confirmationKeyExists(event.getChannel().getIdLong(), event.getAuthor().getIdLong())) {
             // waiting for confirmation
             ActionExecution.LOGGER.info("Message ignored because there is a pending confirmation");
             return false;
@@ -133,7 +141,7 @@ public class ActionExecution extends ActionMessageListener {
         }
 
         String guildUserLockedChannel =
-                ActionConfirmation.getGuildUserLockedChannel(event.getAuthor().getId(), event.getGuild().getId());
+                ActionConfirmation.getGuildUserLockedChannel(event.getAuthor().getIdLong(), event.getGuild().getIdLong());
         if (guildUserLockedChannel != null) {
             processingContext.addMessages(
                     MessageFormat.format("Please confirm the pending action in channel \"{0}\" before running another command", guildUserLockedChannel),
@@ -145,7 +153,7 @@ public class ActionExecution extends ActionMessageListener {
 
         ActionExecution.LOGGER.info("Received action \"{}\"", event.getMessage().getContentRaw());
 
-        actionHandler.executeAction(event, chatCommand, processingContext);
+        actionHandler.executeAction(event, chatCommand, processingContext, unitOfWork);
 
         boolean verboseSwitchPresent = chatCommand.isSwitchModifierPresent(ActionHandler.GlobalActionModifier.VERBOSE);
         ActionExecution.warnIfUnusedModifiersOrArgumentsExist(chatCommand, processingContext);
@@ -4,19 +4,47 @@ import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 import org.Main;
+import org.database.DatabaseExecutor;
+import org.database.UnitOfWork;
 import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.utility.Constants;
 import org.utility.Helper;
 import org.utility.ProcessingContext;
 import org.utility.CommunicationStream;
 
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.LongAdder;
+
 public abstract class ActionMessageListener extends ListenerAdapter {
-    protected abstract boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext);
+    private static final Logger LOGGER;
+
+    private static final LongAdder RECEIVED_MESSAGES_COUNT;
+    private static final LongAdder SHORT_CIRCUITED_MESSAGES_COUNT;
+
+    static {
+        LOGGER = LoggerFactory.getLogger(ActionMessageListener.class);
+
+        RECEIVED_MESSAGES_COUNT = new LongAdder();
+        SHORT_CIRCUITED_MESSAGES_COUNT = new LongAdder();
+    }
+
+    protected abstract boolean isProcessingCandidate(MessageReceivedEvent event);
+    protected abstract boolean processMessage(MessageReceivedEvent event, ProcessingContext processingContext, UnitOfWork unitOfWork);
+
+    public static long getReceivedMessagesCount() {
+        return ActionMessageListener.RECEIVED_MESSAGES_COUNT.sum();
+    }
+
+    public static long getShortCircuitedMessagesCount() {
+        return ActionMessageListener.SHORT_CIRCUITED_MESSAGES_COUNT.sum();
+    }
 
     @Override
     public void onMessageReceived(@NotNull MessageReceivedEvent event) {
         if (Main.COMMAND_LINE_ARGUMENTS.contains(Constants.DEVELOPMENT_ARGUMENT)
-                && !event.getGuild().getId().equals(Constants.DEVELOPMENT_SERVER_ID)) {
+                && event.getGuild().getIdLong() != Constants.DEVELOPMENT_SERVER_SNOWFLAKE) {
             return;
         }
 
@@ -24,23 +52,43 @@ public abstract class ActionMessageListener extends ListenerAdapter {
             return;
         }
 
+        ActionMessageListener.RECEIVED_MESSAGES_COUNT.increment();
+        if (!this.isProcessingCandidate(event)) {
+            // message cannot be a command or a confirmation, skip database work and locking
+            ActionMessageListener.SHORT_CIRCUITED_MESSAGES_COUNT.increment();
+            return;
+        }
 
-        ProcessingContext processingContext = new ProcessingContext();
-        ActionRequest actionRequest = new ActionRequest(event.getChannel().getId(), event.getAuthor().getId(), event.getGuild().getId());
-        boolean verboseResponse = false;
-
-        Object lock = actionRequest.acquireLock();
-        if (lock != null) {
-            synchronized (lock) {
-                try {
-                    Helper.refreshGuildAndUser(event);
-                    verboseResponse = this.processMessage(event, processingContext);
-                } finally {
-                    actionRequest.releaseLock();
-                }
-            }
-        } else {
+        // commands run on the interactive database pool, they never queue behind indexing writes
+        ActionRequest actionRequest = new ActionRequest(event.getChannel().getIdLong(), event.getAuthor().getIdLong(), event.getGuild().getIdLong());
+        CompletableFuture<Void> request = actionRequest.runInTurn(
+                () -> DatabaseExecutor.run(DatabaseExecutor.Workload.INTERACTIVE, () -> this.handleMessage(event))
+        );
+        if (request == null) {
+            ProcessingContext processingContext = new ProcessingContext();
             processingContext.addMessages("Action request could not be processed", ProcessingContext.MessageType.ERROR);
+            CommunicationStream.returnResponse(event.getChannel(), CommunicationStream.processRequestResult(processingContext));
+            return;
+        }
+
+        request.exceptionally(throwable -> {
+                    ActionMessageListener.LOGGER.error(
+                            "Could not process message \"{}\": \"{}\"", event.getMessage().getContentRaw(), throwable.getMessage()
+                    );
+                    CommunicationStream.returnResponse(event.getChannel(), "Action request could not be processed");
+                    return null;
+                });
+    }
+
+    private void handleMessage(MessageReceivedEvent event) {
+        ProcessingContext processingContext = new ProcessingContext();
+        boolean verboseResponse;
+
+        // all database work of one command shares a single session and transaction
+        try (UnitOfWork unitOfWork = new UnitOfWork()) {
+            Helper.refreshGuildAndUser(event, unitOfWork);
+            verboseResponse = this.processMessage(event, processingContext, unitOfWork);
+            unitOfWork.commit();
         }
 
         if (verboseResponse) {
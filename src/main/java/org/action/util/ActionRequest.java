@@ -1,10 +1,10 @@
 package org.action.util;
 
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
 public class ActionRequest {
     private static final Map<ActionRequest.RequestKey, Lock> LOCKS;
@@ -14,36 +14,36 @@ public class ActionRequest {
     }
 
     private final ActionRequest.RequestKey key;
-    private final String guildId;
-    private boolean lockAquired;
+    private final long guildId;
 
-    public ActionRequest(String channelId, String userId, String guildId) {
+    public ActionRequest(long channelId, long userId, long guildId) {
         this.key = new ActionRequest.RequestKey(channelId, userId);
         this.guildId = guildId;
-        this.lockAquired = false;
     }
 
-    public Object acquireLock() {
-        if (this.lockAquired) {
-            throw new IllegalStateException("Lock for this request was already aquired");
+    // requests of one channel and user are chained behind each other, a waiting request holds no thread
+    public CompletableFuture<Void> runInTurn(Supplier<CompletableFuture<Void>> request) {
+        CompletableFuture<Void> turn = new CompletableFuture<>();
+        CompletableFuture<Void> previousTurn;
+        synchronized (ActionRequest.LOCKS) {
+            previousTurn = ActionRequest.LOCKS.computeIfAbsent(this.key, _ -> new Lock()).takeTurn(turn);
         }
 
-        Object lock = ActionRequest.LOCKS.computeIfAbsent(this.key, _ -> new Lock()).getLock();
-        if (lock != null) {
-            this.lockAquired = true;
-            return lock;
+        if (previousTurn == null) {
+            return null;
         }
 
-        return null;
+        return previousTurn
+                .thenCompose(_ -> request.get())
+                .whenComplete((_, _) -> {
+                    this.releaseTurn();
+                    turn.complete(null);
+                });
     }
 
-    public void releaseLock() {
-        if (!this.lockAquired) {
-            throw new IllegalStateException("Lock for this request was not aquired");
-        }
-
+    private void releaseTurn() {
         ActionRequest.LOCKS.computeIfPresent(this.key, (_, lock) -> {
-            if (lock.returnLock() <= 0) {
+            if (lock.returnTurn() <= 0) {
                 return null;
             }
 
@@ -55,27 +55,17 @@ public class ActionRequest {
         return this.key;
     }
 
-    public String getGuildId() {
-        return this.guildId;
+    public ActionRequest.GuildUserKey getGuildUserKey() {
+        return new ActionRequest.GuildUserKey(this.key.userId(), this.guildId);
     }
 
-    public static class PendingListenersRemovalsComparator implements Comparator<ActionRequest> {
-        @Override
-        public int compare(ActionRequest lhs, ActionRequest rhs) {
-            int comparison = lhs.getKey().channelId().compareTo(rhs.getKey().channelId());
-            return comparison != 0 ? comparison : lhs.getKey().userId().compareTo(rhs.getKey().userId());
-        }
-    }
-
-    public static class GuildUserLockComparator implements Comparator<ActionRequest> {
-        @Override
-        public int compare(ActionRequest lhs, ActionRequest rhs) {
-            int comparison = lhs.getKey().userId().compareTo(rhs.getKey().userId());
-            return comparison != 0 ? comparison : lhs.getGuildId().compareTo(rhs.getGuildId());
-        }
+    public long getGuildId() {
+        return this.guildId;
     }
 
-    public record RequestKey(String channelId, String userId) {}
+    // keys hold raw snowflakes, hashing and equality never touch strings
+    public record RequestKey(long channelId, long userId) {}
+    public record GuildUserKey(long userId, long guildId) {}
 
     private static class Lock {
         private static final int MAXIMUM_NUMBER_OF_LOCKS;
@@ -84,25 +74,28 @@ public class ActionRequest {
             MAXIMUM_NUMBER_OF_LOCKS = 5;
         }
 
-        private final AtomicInteger referenceCount;
-        private final Object lock;
+        // both fields are guarded by the monitor of LOCKS
+        private int referenceCount;
+        private CompletableFuture<Void> lastTurn;
 
         public Lock() {
-            this.referenceCount = new AtomicInteger(0);
-            this.lock = new Object();
+            this.referenceCount = 0;
+            this.lastTurn = CompletableFuture.completedFuture(null);
         }
 
-        public synchronized Object getLock() {
-            if (this.referenceCount.get() >= Lock.MAXIMUM_NUMBER_OF_LOCKS) {
+        public CompletableFuture<Void> takeTurn(CompletableFuture<Void> turn) {
+            if (this.referenceCount >= Lock.MAXIMUM_NUMBER_OF_LOCKS) {
                 return null;
             }
 
-            this.referenceCount.incrementAndGet();
-            return this.lock;
+            ++this.referenceCount;
+            CompletableFuture<Void> previousTurn = this.lastTurn;
+            this.lastTurn = turn;
+            return previousTurn;
         }
 
-        public synchronized int returnLock() {
-            return this.referenceCount.decrementAndGet();
+        public int returnTurn() {
+            return --this.referenceCount;
         }
     }
 }
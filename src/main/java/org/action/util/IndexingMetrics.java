@@ -0,0 +1,106 @@
+package org.action.util;
+
+import org.listener.MessageReplicationBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+public class IndexingMetrics implements IndexingMetricsMXBean {
+    private static final Logger LOGGER;
+
+    private static final LongAdder INDEXED_MESSAGES_COUNT;
+    private static final LongAdder INDEXED_REACTIONS_COUNT;
+    private static final LongAdder FAILED_REACTIONS_COUNT;
+    private static final LongAdder FETCHED_PAGES_COUNT;
+    private static final LongAdder DATABASE_WRITE_NANOS;
+    private static final LongAdder REST_WAIT_NANOS;
+
+    static {
+        LOGGER = LoggerFactory.getLogger(IndexingMetrics.class);
+
+        INDEXED_MESSAGES_COUNT = new LongAdder();
+        INDEXED_REACTIONS_COUNT = new LongAdder();
+        FAILED_REACTIONS_COUNT = new LongAdder();
+        FETCHED_PAGES_COUNT = new LongAdder();
+        DATABASE_WRITE_NANOS = new LongAdder();
+        REST_WAIT_NANOS = new LongAdder();
+    }
+
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new IndexingMetrics(), new ObjectName("org:type=IndexingMetrics"));
+        } catch (Exception exception) {
+            IndexingMetrics.LOGGER.error("Could not register indexing metrics: \"{}\"", exception.getMessage());
+        }
+    }
+
+    static void recordPage(int messagesCount) {
+        IndexingMetrics.INDEXED_MESSAGES_COUNT.add(messagesCount);
+        IndexingMetrics.FETCHED_PAGES_COUNT.increment();
+    }
+
+    static void recordReactions(int reactionsCount) {
+        IndexingMetrics.INDEXED_REACTIONS_COUNT.add(reactionsCount);
+    }
+
+    static void recordFailedReactions(int failedReactionsCount) {
+        IndexingMetrics.FAILED_REACTIONS_COUNT.add(failedReactionsCount);
+    }
+
+    static void recordDatabaseWrite(long nanos) {
+        IndexingMetrics.DATABASE_WRITE_NANOS.add(nanos);
+    }
+
+    static void recordRestWait(long nanos) {
+        IndexingMetrics.REST_WAIT_NANOS.add(nanos);
+    }
+
+    @Override
+    public long getIndexedMessagesCount() {
+        return IndexingMetrics.INDEXED_MESSAGES_COUNT.sum();
+    }
+
+    @Override
+    public long getIndexedReactionsCount() {
+        return IndexingMetrics.INDEXED_REACTIONS_COUNT.sum();
+    }
+
+    @Override
+    public long getFailedReactionsCount() {
+        return IndexingMetrics.FAILED_REACTIONS_COUNT.sum();
+    }
+
+    @Override
+    public long getFetchedPagesCount() {
+        return IndexingMetrics.FETCHED_PAGES_COUNT.sum();
+    }
+
+    @Override
+    public long getDatabaseWriteMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(IndexingMetrics.DATABASE_WRITE_NANOS.sum());
+    }
+
+    @Override
+    public long getRestWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(IndexingMetrics.REST_WAIT_NANOS.sum());
+    }
+
+    @Override
+    public long getReceivedMessagesCount() {
+        return ActionMessageListener.getReceivedMessagesCount();
+    }
+
+    @Override
+    public long getShortCircuitedMessagesCount() {
+        return ActionMessageListener.getShortCircuitedMessagesCount();
+    }
+
+    @Override
+    public long getDroppedReplicationOperationsCount() {
+        return MessageReplicationBuffer.getDroppedOperationsCount();
+    }
+}
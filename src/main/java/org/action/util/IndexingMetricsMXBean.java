@@ -0,0 +1,13 @@
+package org.action.util;
+
+public interface IndexingMetricsMXBean {
+    long getIndexedMessagesCount();
+    long getIndexedReactionsCount();
+    long getFailedReactionsCount();
+    long getFetchedPagesCount();
+    long getDatabaseWriteMillis();
+    long getRestWaitMillis();
+    long getReceivedMessagesCount();
+    long getShortCircuitedMessagesCount();
+    long getDroppedReplicationOperationsCount();
+}
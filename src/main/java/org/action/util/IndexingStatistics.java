@@ -0,0 +1,137 @@
+package org.action.util;
+
+import org.utility.Helper;
+
+import java.text.MessageFormat;
+import java.util.concurrent.atomic.LongAdder;
+
+public class IndexingStatistics {
+    private static final int SNOWFLAKE_TIMESTAMP_SHIFT = 22;
+
+    private final LongAdder messagesCount;
+    private final LongAdder reactionsCount;
+    private final LongAdder failedReactionsCount;
+    private final LongAdder pagesCount;
+    private final LongAdder databaseWriteNanos;
+    private final LongAdder restWaitNanos;
+
+    private volatile long startNanos;
+    private volatile long finishNanos;
+    private volatile long startSnowflake;
+    private volatile long processedSnowflake;
+    private volatile long targetSnowflake;
+
+    public IndexingStatistics() {
+        this.messagesCount = new LongAdder();
+        this.reactionsCount = new LongAdder();
+        this.failedReactionsCount = new LongAdder();
+        this.pagesCount = new LongAdder();
+        this.databaseWriteNanos = new LongAdder();
+        this.restWaitNanos = new LongAdder();
+    }
+
+    public void start(long startSnowflake, long targetSnowflake) {
+        this.startNanos = System.nanoTime();
+        this.startSnowflake = startSnowflake;
+        this.processedSnowflake = startSnowflake;
+        this.targetSnowflake = targetSnowflake;
+    }
+
+    public void finish() {
+        this.finishNanos = System.nanoTime();
+    }
+
+    public void recordPage(int messagesCount, long firstSnowflake, long lastSnowflake) {
+        if (this.startSnowflake == 0) {
+            // indexing from the beginning of the channel, first message is only known after the first page
+            this.startSnowflake = firstSnowflake;
+        }
+
+        this.processedSnowflake = lastSnowflake;
+        this.messagesCount.add(messagesCount);
+        this.pagesCount.increment();
+        IndexingMetrics.recordPage(messagesCount);
+    }
+
+    public void recordReactions(int reactionsCount) {
+        this.reactionsCount.add(reactionsCount);
+        IndexingMetrics.recordReactions(reactionsCount);
+    }
+
+    public void recordFailedReactions(int failedReactionsCount) {
+        this.failedReactionsCount.add(failedReactionsCount);
+        IndexingMetrics.recordFailedReactions(failedReactionsCount);
+    }
+
+    public void recordDatabaseWrite(long nanos) {
+        this.databaseWriteNanos.add(nanos);
+        IndexingMetrics.recordDatabaseWrite(nanos);
+    }
+
+    public void recordRestWait(long nanos) {
+        this.restWaitNanos.add(nanos);
+        IndexingMetrics.recordRestWait(nanos);
+    }
+
+    public double getMessagesPerSecond() {
+        double elapsedSeconds = this.getElapsedNanos() / 1e9;
+        return elapsedSeconds <= 0 ? 0 : this.messagesCount.sum() / elapsedSeconds;
+    }
+
+    public double getProgress() {
+        if (this.finishNanos != 0) {
+            return 1;
+        }
+
+        // messages are indexed from oldest to newest, progress is estimated from snowflake timestamps
+        long startTimestamp = this.startSnowflake >>> IndexingStatistics.SNOWFLAKE_TIMESTAMP_SHIFT;
+        long processedTimestamp = this.processedSnowflake >>> IndexingStatistics.SNOWFLAKE_TIMESTAMP_SHIFT;
+        long targetTimestamp = this.targetSnowflake >>> IndexingStatistics.SNOWFLAKE_TIMESTAMP_SHIFT;
+        if (this.startSnowflake == 0 || targetTimestamp <= startTimestamp) {
+            return 0;
+        }
+
+        return Math.clamp((double)(processedTimestamp - startTimestamp) / (targetTimestamp - startTimestamp), 0.0, 1.0);
+    }
+
+    public Long getEtaSeconds() {
+        double progress = this.getProgress();
+        if (progress <= 0) {
+            return null;
+        }
+
+        return Math.round(this.getElapsedNanos() / 1e9 * (1 - progress) / progress);
+    }
+
+    public String describe(String channelName) {
+        if (this.startNanos == 0) {
+            return MessageFormat.format("\"{0}\": queued", channelName);
+        }
+
+        Long etaSeconds = this.getEtaSeconds();
+        String state = this.finishNanos != 0
+                ? "finished"
+                : String.valueOf(Helper.formatDecimalNumber(this.getProgress() * 100, 1)) + " %, ETA " + (etaSeconds == null ? "unknown" : etaSeconds + " s");
+
+        return MessageFormat.format(
+                "\"{0}\": {1}, {2} messages, {3} reactions ({4} failed), {5} pages, {6} messages/s, DB write {7} s, REST wait {8} s",
+                channelName,
+                state,
+                String.valueOf(this.messagesCount.sum()),
+                String.valueOf(this.reactionsCount.sum()),
+                String.valueOf(this.failedReactionsCount.sum()),
+                String.valueOf(this.pagesCount.sum()),
+                String.valueOf(Helper.formatDecimalNumber(this.getMessagesPerSecond(), 1)),
+                String.valueOf(Helper.formatDecimalNumber(this.databaseWriteNanos.sum() / 1e9, 2)),
+                String.valueOf(Helper.formatDecimalNumber(this.restWaitNanos.sum() / 1e9, 2))
+        );
+    }
+
+    private long getElapsedNanos() {
+        if (this.startNanos == 0) {
+            return 0;
+        }
+
+        return (this.finishNanos != 0 ? this.finishNanos : System.nanoTime()) - this.startNanos;
+    }
+}
@@ -0,0 +1,147 @@
+package org.database;
+
+import org.Main;
+import org.database.dto.MessageDto;
+import org.database.dto.ReactionDto;
+import org.database.dto.UserDto;
+import org.hibernate.SharedSessionContract;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.List;
+
+public class BulkWriter {
+    public static final int BATCH_SIZE;
+
+    private static final String INSERT_MESSAGE_SQL;
+    private static final String UPDATE_MESSAGE_SQL;
+    private static final String DELETE_MESSAGE_SQL;
+    private static final String INSERT_REACTION_SQL;
+    private static final String DELETE_REACTION_SQL;
+    private static final String DELETE_MESSAGE_REACTIONS_SQL;
+    private static final String INSERT_USER_SQL;
+
+    static {
+        BATCH_SIZE = Integer.parseInt(Main.DOTENV.get("DATABASE_BATCH_SIZE", "500"));
+
+        INSERT_MESSAGE_SQL = "INSERT INTO " + MessageDto.MESSAGE_TABLE_NAME + " ("
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + ", " + MessageDto.SNOWFLAKE_MESSAGE_AUTHOR_COLUMN_NAME + ", "
+                + MessageDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + ", " + MessageDto.MESSAGE_COLUMN_NAME + ") VALUES (?, ?, ?, ?) "
+                + "AS new ON DUPLICATE KEY UPDATE " + MessageDto.MESSAGE_COLUMN_NAME + " = new." + MessageDto.MESSAGE_COLUMN_NAME;
+        UPDATE_MESSAGE_SQL = "UPDATE " + MessageDto.MESSAGE_TABLE_NAME + " SET " + MessageDto.MESSAGE_COLUMN_NAME + " = ? WHERE "
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " = ?";
+        DELETE_MESSAGE_SQL = "DELETE FROM " + MessageDto.MESSAGE_TABLE_NAME + " WHERE "
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " = ?";
+        // messages and reactions can be written by both indexing and live replication, duplicates are skipped
+        INSERT_REACTION_SQL = "INSERT IGNORE INTO " + ReactionDto.REACTION_TABLE_NAME + " ("
+                + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + ", " + ReactionDto.SNOWFLAKE_REACTION_AUTHOR_COLUMN_NAME + ", "
+                + ReactionDto.ID_EMOJI_COLUMN_NAME + ") VALUES (?, ?, ?)";
+        DELETE_REACTION_SQL = "DELETE FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE "
+                + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " = ? AND " + ReactionDto.SNOWFLAKE_REACTION_AUTHOR_COLUMN_NAME + " = ? AND "
+                + ReactionDto.ID_EMOJI_COLUMN_NAME + " = ?";
+        DELETE_MESSAGE_REACTIONS_SQL = "DELETE FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE "
+                + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " = ?";
+        INSERT_USER_SQL = "INSERT IGNORE INTO " + UserDto.USER_TABLE_NAME + " ("
+                + UserDto.SNOWFLAKE_USER_COLUMN_NAME + ", " + UserDto.BOT_COLUMN_NAME + ") VALUES (?, ?)";
+    }
+
+    public static void insertMessages(Collection<MessageDto> messageDtos, SharedSessionContract session) {
+        BulkWriter.executeBatched(session, BulkWriter.INSERT_MESSAGE_SQL, messageDtos, (statement, messageDto) -> {
+            statement.setLong(1, messageDto.getSnowflakeMessage());
+            statement.setLong(2, messageDto.getSnowflakeMessageAuthor());
+            statement.setLong(3, messageDto.getSnowflakeChannel());
+            statement.setString(4, messageDto.getMessage());
+        });
+    }
+
+    public static void updateMessages(Collection<MessageDto> messageDtos, SharedSessionContract session) {
+        BulkWriter.executeBatched(session, BulkWriter.UPDATE_MESSAGE_SQL, messageDtos, (statement, messageDto) -> {
+            statement.setString(1, messageDto.getMessage());
+            statement.setLong(2, messageDto.getSnowflakeMessage());
+        });
+    }
+
+    public static void deleteMessages(Collection<Long> snowflakesMessages, SharedSessionContract session) {
+        if (!snowflakesMessages.isEmpty()) {
+            EmojiCollector.addCandidatesOnCommit(MessageDto.getReactionEmojis(snowflakesMessages, session), session);
+        }
+
+        BulkWriter.executeBatched(session, BulkWriter.DELETE_MESSAGE_REACTIONS_SQL, snowflakesMessages, (statement, snowflakeMessage) ->
+                statement.setLong(1, snowflakeMessage)
+        );
+        BulkWriter.executeBatched(session, BulkWriter.DELETE_MESSAGE_SQL, snowflakesMessages, (statement, snowflakeMessage) ->
+                statement.setLong(1, snowflakeMessage)
+        );
+    }
+
+    public static void deleteReactions(Collection<ReactionDto> reactionDtos, SharedSessionContract session) {
+        BulkWriter.executeBatched(session, BulkWriter.DELETE_REACTION_SQL, reactionDtos, (statement, reactionDto) -> {
+            statement.setLong(1, reactionDto.getSnowflakeMessage());
+            statement.setLong(2, reactionDto.getSnowflakeReactionAuthor());
+            statement.setLong(3, reactionDto.getIdEmoji());
+        });
+
+        EmojiCollector.addCandidatesOnCommit(
+                reactionDtos.stream().map(ReactionDto::getIdEmoji).distinct().toList(), session
+        );
+    }
+
+    public static void insertReactions(Collection<ReactionDto> reactionDtos, SharedSessionContract session) {
+        BulkWriter.executeBatched(session, BulkWriter.INSERT_REACTION_SQL, reactionDtos, (statement, reactionDto) -> {
+            statement.setLong(1, reactionDto.getSnowflakeMessage());
+            statement.setLong(2, reactionDto.getSnowflakeReactionAuthor());
+            statement.setLong(3, reactionDto.getIdEmoji());
+        });
+    }
+
+    public static void insertUsers(Collection<UserDto> userDtos, SharedSessionContract session) {
+        List<UserDto> unknownUserDtos = userDtos.stream()
+                .filter(userDto -> !UserDto.isKnownUser(userDto.getSnowflakeUser()))
+                .toList();
+
+        // users are shared between channels, rows that already exist are skipped
+        BulkWriter.executeBatched(session, BulkWriter.INSERT_USER_SQL, unknownUserDtos, (statement, userDto) -> {
+            statement.setLong(1, userDto.getSnowflakeUser());
+            statement.setBoolean(2, userDto.isBot());
+        });
+
+        if (!unknownUserDtos.isEmpty()) {
+            UserDto.markUsersKnownOnCommit(
+                    unknownUserDtos.stream().map(UserDto::getSnowflakeUser).toList(), session
+            );
+        }
+    }
+
+    private static<T> void executeBatched(
+            SharedSessionContract session, String sql, Collection<T> rows, BulkWriter.StatementBinder<T> binder
+    ) {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        session.doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(sql)) {
+                int batchedRows = 0;
+                for (T row : rows) {
+                    binder.bind(statement, row);
+                    statement.addBatch();
+
+                    if (++batchedRows >= BulkWriter.BATCH_SIZE) {
+                        statement.executeBatch();
+                        batchedRows = 0;
+                    }
+                }
+
+                if (batchedRows > 0) {
+                    statement.executeBatch();
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface StatementBinder<T> {
+        void bind(PreparedStatement statement, T row) throws SQLException;
+    }
+}
@@ -0,0 +1,153 @@
+package org.database;
+
+import org.Main;
+
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+public class DatabaseExecutor {
+    private static final int INTERACTIVE_THREADS;
+    private static final int BULK_THREADS;
+    private static final ThreadPoolExecutor INTERACTIVE_EXECUTOR;
+    private static final ThreadPoolExecutor BULK_EXECUTOR;
+    private static final ThreadLocal<DatabaseExecutor.Workload> CURRENT_WORKLOAD;
+    private static final int RESUBMIT_DELAY_MS;
+    private static final ScheduledExecutorService RESUBMIT_EXECUTOR;
+    private static final int SHUTDOWN_TIMEOUT_S;
+    private static final List<Runnable> SHUTDOWN_TASKS;
+
+    static {
+        INTERACTIVE_THREADS = Integer.parseInt(Main.DOTENV.get("DATABASE_INTERACTIVE_THREADS", "4"));
+        BULK_THREADS = Integer.parseInt(Main.DOTENV.get("DATABASE_BULK_THREADS", "2"));
+        int interactiveQueueSize = Integer.parseInt(Main.DOTENV.get("DATABASE_INTERACTIVE_QUEUE_SIZE", "256"));
+        int bulkQueueSize = Integer.parseInt(Main.DOTENV.get("DATABASE_BULK_QUEUE_SIZE", "256"));
+        CURRENT_WORKLOAD = new ThreadLocal<>();
+        RESUBMIT_DELAY_MS = Integer.parseInt(Main.DOTENV.get("DATABASE_RESUBMIT_DELAY_MS", "50"));
+        RESUBMIT_EXECUTOR = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "database-resubmit");
+            thread.setDaemon(true);
+            return thread;
+        });
+        SHUTDOWN_TIMEOUT_S = Integer.parseInt(Main.DOTENV.get("DATABASE_SHUTDOWN_TIMEOUT_S", "30"));
+        SHUTDOWN_TASKS = new CopyOnWriteArrayList<>();
+
+        // each workload runs on its own bounded pool, a full bulk queue never delays interactive commands
+        INTERACTIVE_EXECUTOR = new ThreadPoolExecutor(
+                DatabaseExecutor.INTERACTIVE_THREADS, DatabaseExecutor.INTERACTIVE_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(interactiveQueueSize), DatabaseExecutor.createThreadFactory(DatabaseExecutor.Workload.INTERACTIVE)
+        );
+        BULK_EXECUTOR = new ThreadPoolExecutor(
+                DatabaseExecutor.BULK_THREADS, DatabaseExecutor.BULK_THREADS, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(bulkQueueSize), DatabaseExecutor.createThreadFactory(DatabaseExecutor.Workload.BULK)
+        );
+        Runtime.getRuntime().addShutdownHook(new Thread(DatabaseExecutor::shutdown));
+    }
+
+    private static ThreadFactory createThreadFactory(DatabaseExecutor.Workload workload) {
+        ThreadFactory defaultThreadFactory = Executors.defaultThreadFactory();
+        return runnable -> defaultThreadFactory.newThread(() -> {
+            DatabaseExecutor.CURRENT_WORKLOAD.set(workload);
+            runnable.run();
+        });
+    }
+
+    private static void shutdown() {
+        // buffered writes are flushed while the pools still accept work, only then the pools stop
+        DatabaseExecutor.SHUTDOWN_TASKS.forEach(Runnable::run);
+
+        DatabaseExecutor.INTERACTIVE_EXECUTOR.shutdown();
+        DatabaseExecutor.BULK_EXECUTOR.shutdown();
+        try {
+            DatabaseExecutor.INTERACTIVE_EXECUTOR.awaitTermination(DatabaseExecutor.SHUTDOWN_TIMEOUT_S, TimeUnit.SECONDS);
+            DatabaseExecutor.BULK_EXECUTOR.awaitTermination(DatabaseExecutor.SHUTDOWN_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void addShutdownTask(Runnable task) {
+        DatabaseExecutor.SHUTDOWN_TASKS.add(task);
+    }
+
+    public static int getRequiredPoolSize() {
+        // interactive command can hold its unit of work while a tag snapshot or a guild index is loaded on a second connection
+        return DatabaseExecutor.INTERACTIVE_THREADS * 2 + DatabaseExecutor.BULK_THREADS;
+    }
+
+    public static ExecutorService getExecutor(DatabaseExecutor.Workload workload) {
+        return switch (workload) {
+            case DatabaseExecutor.Workload.INTERACTIVE -> DatabaseExecutor.INTERACTIVE_EXECUTOR;
+            case DatabaseExecutor.Workload.BULK -> DatabaseExecutor.BULK_EXECUTOR;
+        };
+    }
+
+    public static Executor getBlockingExecutor(DatabaseExecutor.Workload workload) {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) DatabaseExecutor.getExecutor(workload);
+        return command -> {
+            // pool threads cannot wait for their own queue to drain, they run the overflowing work themselves
+            if (DatabaseExecutor.CURRENT_WORKLOAD.get() == workload) {
+                try {
+                    executor.execute(command);
+                } catch (RejectedExecutionException exception) {
+                    command.run();
+                }
+                return;
+            }
+
+            try {
+                executor.execute(command);
+            } catch (RejectedExecutionException exception) {
+                if (executor.isShutdown()) {
+                    throw exception;
+                }
+
+                // producers outside the pool wait for a free queue slot instead of losing the work
+                try {
+                    executor.getQueue().put(command);
+                } catch (InterruptedException interruptedException) {
+                    Thread.currentThread().interrupt();
+                    throw new RejectedExecutionException(interruptedException);
+                }
+            }
+        };
+    }
+
+    public static Executor getDeferringExecutor(DatabaseExecutor.Workload workload) {
+        ThreadPoolExecutor executor = (ThreadPoolExecutor) DatabaseExecutor.getExecutor(workload);
+        return command -> DatabaseExecutor.executeOrDefer(executor, command);
+    }
+
+    private static void executeOrDefer(ThreadPoolExecutor executor, Runnable command) {
+        try {
+            executor.execute(command);
+        } catch (RejectedExecutionException exception) {
+            if (executor.isShutdown()) {
+                throw exception;
+            }
+
+            // callers such as JDA callback threads never wait for a queue slot, the work is offered again a bit later
+            DatabaseExecutor.RESUBMIT_EXECUTOR.schedule(
+                    () -> DatabaseExecutor.executeOrDefer(executor, command), DatabaseExecutor.RESUBMIT_DELAY_MS, TimeUnit.MILLISECONDS
+            );
+        }
+    }
+
+    public static<T> CompletableFuture<T> supply(DatabaseExecutor.Workload workload, Supplier<T> work) {
+        try {
+            return CompletableFuture.supplyAsync(work, DatabaseExecutor.getExecutor(workload));
+        } catch (RejectedExecutionException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    public static CompletableFuture<Void> run(DatabaseExecutor.Workload workload, Runnable work) {
+        try {
+            return CompletableFuture.runAsync(work, DatabaseExecutor.getExecutor(workload));
+        } catch (RejectedExecutionException exception) {
+            return CompletableFuture.failedFuture(exception);
+        }
+    }
+
+    public enum Workload { INTERACTIVE, BULK }
+}
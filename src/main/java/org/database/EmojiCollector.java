@@ -0,0 +1,184 @@
+package org.database;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.Main;
+import org.database.cache.EmojiCache;
+import org.database.dto.EmojiDto;
+import org.database.dto.GuildEmojiDto;
+import org.database.dto.ReactionDto;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+public class EmojiCollector {
+    private static final Logger LOGGER;
+
+    private static final int COLLECTION_INTERVAL_S;
+    private static final int SWEEP_INTERVAL_S;
+    private static final int COLLECTION_CHUNK_SIZE;
+    private static final Set<Long> CANDIDATES;
+    private static final ReentrantReadWriteLock USAGE_LOCK;
+    private static final ScheduledExecutorService EXECUTOR_SERVICE;
+
+    private static final String UNREFERENCED_EMOJIS_SQL;
+    private static final String DELETE_GUILD_EMOJI_SQL;
+    private static final String DELETE_EMOJI_SQL;
+
+    static {
+        LOGGER = LoggerFactory.getLogger(EmojiCollector.class);
+
+        COLLECTION_INTERVAL_S = Integer.parseInt(Main.DOTENV.get("EMOJI_COLLECTION_INTERVAL_S", "60"));
+        SWEEP_INTERVAL_S = Integer.parseInt(Main.DOTENV.get("EMOJI_SWEEP_INTERVAL_S", "21600"));
+        COLLECTION_CHUNK_SIZE = Integer.parseInt(Main.DOTENV.get("EMOJI_COLLECTION_CHUNK_SIZE", "100"));
+        CANDIDATES = ConcurrentHashMap.newKeySet();
+        USAGE_LOCK = new ReentrantReadWriteLock();
+
+        // an emoji is removed only while no reaction references it, probing the reaction primary key prefix is cheap
+        String unreferencedSql = "NOT EXISTS (SELECT 1 FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE "
+                + ReactionDto.REACTION_TABLE_NAME + "." + ReactionDto.ID_EMOJI_COLUMN_NAME + " = :p_idEmoji)";
+        UNREFERENCED_EMOJIS_SQL = "SELECT " + EmojiDto.ID_EMOJI_COLUMN_NAME + " FROM " + EmojiDto.EMOJI_TABLE_NAME
+                + " WHERE NOT EXISTS (SELECT 1 FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE " + ReactionDto.REACTION_TABLE_NAME + "."
+                + ReactionDto.ID_EMOJI_COLUMN_NAME + " = " + EmojiDto.EMOJI_TABLE_NAME + "." + EmojiDto.ID_EMOJI_COLUMN_NAME + ")";
+        DELETE_GUILD_EMOJI_SQL = "DELETE FROM " + GuildEmojiDto.GUILD_EMOJI_TABLE_NAME + " WHERE "
+                + GuildEmojiDto.ID_EMOJI_COLUMN_NAME + " = :p_idEmoji AND " + unreferencedSql;
+        DELETE_EMOJI_SQL = "DELETE FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
+                + EmojiDto.ID_EMOJI_COLUMN_NAME + " = :p_idEmoji AND " + unreferencedSql;
+
+        EXECUTOR_SERVICE = Executors.newSingleThreadScheduledExecutor();
+        EXECUTOR_SERVICE.scheduleWithFixedDelay(
+                EmojiCollector::collect, EmojiCollector.COLLECTION_INTERVAL_S, EmojiCollector.COLLECTION_INTERVAL_S, TimeUnit.SECONDS
+        );
+        // candidates are kept only in memory, the sweep finds emojis whose candidacy was lost by a restart or a failure
+        EXECUTOR_SERVICE.scheduleWithFixedDelay(
+                EmojiCollector::sweep, EmojiCollector.SWEEP_INTERVAL_S, EmojiCollector.SWEEP_INTERVAL_S, TimeUnit.SECONDS
+        );
+    }
+
+    public static void acquireEmojiUsage() {
+        // emoji ids resolved by a transaction stay valid until it is finished, the collector waits for all of them
+        EmojiCollector.USAGE_LOCK.readLock().lock();
+    }
+
+    public static void releaseEmojiUsage() {
+        EmojiCollector.USAGE_LOCK.readLock().unlock();
+    }
+
+    public static void addCandidatesOnCommit(Collection<Long> idsEmojis, SharedSessionContract session) {
+        if (idsEmojis.isEmpty()) {
+            return;
+        }
+
+        // emojis lose their references only once the deleting transaction is committed
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    EmojiCollector.CANDIDATES.addAll(idsEmojis);
+                }
+            }
+        });
+    }
+
+    private static void collect() {
+        if (EmojiCollector.CANDIDATES.isEmpty()) {
+            return;
+        }
+
+        try {
+            // purge runs on the bulk thread itself, waiting for the lock there could starve the pool it is queued on
+            DatabaseExecutor.run(DatabaseExecutor.Workload.BULK, EmojiCollector::collectUnused).join();
+        } catch (Exception exception) {
+            EmojiCollector.LOGGER.error("Could not collect unreferenced emojis: \"{}\"", exception.getMessage());
+        }
+    }
+
+    private static void collectUnused() {
+        // emojis are not deleted while indexing or replication may still insert reactions referencing them
+        if (!EmojiCollector.USAGE_LOCK.writeLock().tryLock()) {
+            return;
+        }
+
+        boolean emojisDeleted = false;
+        try {
+            List<Long> candidates = new ArrayList<>(EmojiCollector.CANDIDATES);
+            for (int i = 0; i < candidates.size(); i += EmojiCollector.COLLECTION_CHUNK_SIZE) {
+                List<Long> chunk = candidates.subList(i, Math.min(i + EmojiCollector.COLLECTION_CHUNK_SIZE, candidates.size()));
+                chunk.forEach(EmojiCollector.CANDIDATES::remove);
+
+                try {
+                    emojisDeleted |= EmojiCollector.collectChunk(chunk);
+                } catch (RuntimeException exception) {
+                    // candidates are retried during the next collection
+                    EmojiCollector.CANDIDATES.addAll(chunk);
+                    EmojiCollector.LOGGER.error("Could not collect {} unreferenced emojis: \"{}\"", chunk.size(), exception.getMessage());
+                    return;
+                }
+            }
+        } finally {
+            if (emojisDeleted) {
+                EmojiCache.invalidate();
+            }
+            EmojiCollector.USAGE_LOCK.writeLock().unlock();
+        }
+    }
+
+    private static void sweep() {
+        try {
+            List<Long> unreferencedEmojis = DatabaseExecutor.supply(DatabaseExecutor.Workload.BULK, () -> {
+                StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+                try {
+                    return session.createNativeQuery(EmojiCollector.UNREFERENCED_EMOJIS_SQL, Long.class).list();
+                } finally {
+                    session.close();
+                }
+            }).join();
+            EmojiCollector.CANDIDATES.addAll(unreferencedEmojis);
+        } catch (Exception exception) {
+            EmojiCollector.LOGGER.error("Could not sweep unreferenced emojis: \"{}\"", exception.getMessage());
+        }
+    }
+
+    private static boolean collectChunk(List<Long> idsEmojis) {
+        StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+        Transaction transaction = session.beginTransaction();
+
+        try {
+            int deletedEmojis = 0;
+            for (long idEmoji : idsEmojis) {
+                session.createNativeMutationQuery(EmojiCollector.DELETE_GUILD_EMOJI_SQL)
+                        .setParameter("p_idEmoji", idEmoji)
+                        .executeUpdate();
+                deletedEmojis += session.createNativeMutationQuery(EmojiCollector.DELETE_EMOJI_SQL)
+                        .setParameter("p_idEmoji", idEmoji)
+                        .executeUpdate();
+            }
+
+            if (deletedEmojis > 0) {
+                EmojiCache.invalidateOnCompletion(session);
+            }
+            transaction.commit();
+            return deletedEmojis > 0;
+        } catch (RuntimeException exception) {
+            transaction.rollback();
+            throw exception;
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package org.database;
+
+import org.hibernate.SharedSessionContract;
+import org.hibernate.query.MutationQuery;
+import org.hibernate.query.NativeQuery;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+public class QueryCatalog implements QueryCatalogMXBean {
+    private static final Logger LOGGER;
+
+    private static final Map<String, QueryCatalog.CatalogQuery> QUERIES;
+
+    static {
+        LOGGER = LoggerFactory.getLogger(QueryCatalog.class);
+
+        QUERIES = new ConcurrentHashMap<>();
+    }
+
+    public static QueryCatalog.CatalogQuery define(String name, String sql) {
+        QueryCatalog.CatalogQuery query = new QueryCatalog.CatalogQuery(name, sql);
+        if (QueryCatalog.QUERIES.putIfAbsent(name, query) != null) {
+            throw new IllegalStateException("Query \"" + name + "\" is already defined");
+        }
+
+        return query;
+    }
+
+    public static void register() {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(new QueryCatalog(), new ObjectName("org:type=QueryCatalog"));
+        } catch (Exception exception) {
+            QueryCatalog.LOGGER.error("Could not register query catalog metrics: \"{}\"", exception.getMessage());
+        }
+    }
+
+    private static Map<String, Long> collectStatistics(Function<QueryCatalog.CatalogQuery, Long> statistic) {
+        Map<String, Long> statistics = new TreeMap<>();
+        QueryCatalog.QUERIES.values().forEach(query -> statistics.put(query.getName(), statistic.apply(query)));
+        return statistics;
+    }
+
+    @Override
+    public Map<String, Long> getExecutionsCount() {
+        return QueryCatalog.collectStatistics(query -> query.executionsCount.sum());
+    }
+
+    @Override
+    public Map<String, Long> getAverageMicros() {
+        return QueryCatalog.collectStatistics(query -> {
+            long executionsCount = query.executionsCount.sum();
+            return executionsCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(query.executionNanos.sum() / executionsCount);
+        });
+    }
+
+    @Override
+    public Map<String, Long> getMaxMicros() {
+        return QueryCatalog.collectStatistics(query -> TimeUnit.NANOSECONDS.toMicros(query.maxExecutionNanos.get()));
+    }
+
+    public static class CatalogQuery {
+        private final String name;
+        private final String sql;
+
+        private final LongAdder executionsCount;
+        private final LongAdder executionNanos;
+        private final LongAccumulator maxExecutionNanos;
+
+        private CatalogQuery(String name, String sql) {
+            this.name = name;
+            this.sql = sql;
+
+            this.executionsCount = new LongAdder();
+            this.executionNanos = new LongAdder();
+            this.maxExecutionNanos = new LongAccumulator(Math::max, 0);
+        }
+
+        public <T> List<T> list(SharedSessionContract session, Class<T> resultClass, UnaryOperator<NativeQuery<T>> binder) {
+            long start = System.nanoTime();
+            try {
+                return binder.apply(session.createNativeQuery(this.sql, resultClass)).getResultList();
+            } finally {
+                this.record(System.nanoTime() - start);
+            }
+        }
+
+        public <T> T single(SharedSessionContract session, Class<T> resultClass, UnaryOperator<NativeQuery<T>> binder) {
+            long start = System.nanoTime();
+            try {
+                return binder.apply(session.createNativeQuery(this.sql, resultClass)).getSingleResultOrNull();
+            } finally {
+                this.record(System.nanoTime() - start);
+            }
+        }
+
+        public <T> boolean exists(SharedSessionContract session, Class<T> resultClass, UnaryOperator<NativeQuery<T>> binder) {
+            return !this.list(session, resultClass, query -> binder.apply(query).setMaxResults(1)).isEmpty();
+        }
+
+        public <T> void forEach(
+                SharedSessionContract session, Class<T> resultClass, UnaryOperator<NativeQuery<T>> binder, Consumer<T> consumer
+        ) {
+            // rows are consumed while the result set is read, the whole read is timed
+            long start = System.nanoTime();
+            try {
+                try (Stream<T> rows = binder.apply(session.createNativeQuery(this.sql, resultClass)).getResultStream()) {
+                    rows.forEach(consumer);
+                }
+            } finally {
+                this.record(System.nanoTime() - start);
+            }
+        }
+
+        public int update(SharedSessionContract session, UnaryOperator<MutationQuery> binder) {
+            long start = System.nanoTime();
+            try {
+                return binder.apply(session.createNativeMutationQuery(this.sql)).executeUpdate();
+            } finally {
+                this.record(System.nanoTime() - start);
+            }
+        }
+
+        public String getName() {
+            return this.name;
+        }
+
+        public String getSql() {
+            return this.sql;
+        }
+
+        private void record(long nanos) {
+            this.executionsCount.increment();
+            this.executionNanos.add(nanos);
+            this.maxExecutionNanos.accumulate(nanos);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package org.database;
+
+import java.util.Map;
+
+public interface QueryCatalogMXBean {
+    Map<String, Long> getExecutionsCount();
+    Map<String, Long> getAverageMicros();
+    Map<String, Long> getMaxMicros();
+}
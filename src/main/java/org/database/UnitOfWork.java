@@ -0,0 +1,49 @@
+package org.database;
+
+import org.Main;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+
+public class UnitOfWork implements AutoCloseable {
+    private Session session;
+    private Transaction transaction;
+
+    public UnitOfWork() {
+        this.session = null;
+        this.transaction = null;
+    }
+
+    public Session getSession() {
+        // connection is borrowed only when the command actually reaches the database
+        if (this.session == null) {
+            this.session = Main.DATABASE_SESSION_FACTORY.openSession();
+            this.transaction = this.session.beginTransaction();
+        }
+
+        return this.session;
+    }
+
+    public void commit() {
+        if (this.transaction != null && this.transaction.isActive()) {
+            this.transaction.commit();
+        }
+    }
+
+    @Override
+    public void close() {
+        if (this.session == null) {
+            return;
+        }
+
+        try {
+            // work which was not committed explicitly is discarded
+            if (this.transaction.isActive()) {
+                this.transaction.rollback();
+            }
+        } finally {
+            this.session.close();
+            this.session = null;
+            this.transaction = null;
+        }
+    }
+}
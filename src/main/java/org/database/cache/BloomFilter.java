@@ -0,0 +1,59 @@
+package org.database.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public class BloomFilter {
+    private final AtomicLongArray bits;
+    private final long bitsCount;
+    private final int hashFunctionsCount;
+
+    public BloomFilter(long expectedInsertions, double falsePositiveProbability) {
+        if (expectedInsertions <= 0 || falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("Expected insertions must be positive and false positive probability must be in range (0; 1)");
+        }
+
+        long optimalBitsCount = (long)Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        int wordsCount = (int)Math.min(Integer.MAX_VALUE - 8, (optimalBitsCount + Long.SIZE - 1) / Long.SIZE);
+
+        this.bits = new AtomicLongArray(wordsCount);
+        this.bitsCount = (long)wordsCount * Long.SIZE;
+        this.hashFunctionsCount = Math.max(1, (int)Math.round((double)this.bitsCount / expectedInsertions * Math.log(2)));
+    }
+
+    private static long mix(long value) {
+        // splitmix64 finalizer, snowflakes are far from uniformly distributed in their low bits
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    public void add(long value) {
+        long firstHash = BloomFilter.mix(value);
+        long secondHash = BloomFilter.mix(firstHash) | 1;
+
+        for (int i = 0; i < this.hashFunctionsCount; ++i) {
+            long bitIndex = Long.remainderUnsigned(firstHash + i * secondHash, this.bitsCount);
+            int wordIndex = (int)(bitIndex >>> 6);
+            long mask = 1L << bitIndex;
+
+            long word = this.bits.get(wordIndex);
+            while ((word & mask) == 0 && !this.bits.compareAndSet(wordIndex, word, word | mask)) {
+                word = this.bits.get(wordIndex);
+            }
+        }
+    }
+
+    public boolean mightContain(long value) {
+        long firstHash = BloomFilter.mix(value);
+        long secondHash = BloomFilter.mix(firstHash) | 1;
+
+        for (int i = 0; i < this.hashFunctionsCount; ++i) {
+            long bitIndex = Long.remainderUnsigned(firstHash + i * secondHash, this.bitsCount);
+            if ((this.bits.get((int)(bitIndex >>> 6)) & (1L << bitIndex)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+}
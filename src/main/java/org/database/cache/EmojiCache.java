@@ -0,0 +1,95 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.SharedSessionContract;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class EmojiCache {
+    private static final ConcurrentMap<String, Long> ID_EMOJI_BY_EMOJI;
+    private static final ConcurrentMap<Long, Long> ID_EMOJI_BY_SNOWFLAKE_EMOJI;
+    private static final AtomicLong VERSION;
+
+    static {
+        ID_EMOJI_BY_EMOJI = new ConcurrentHashMap<>();
+        ID_EMOJI_BY_SNOWFLAKE_EMOJI = new ConcurrentHashMap<>();
+        VERSION = new AtomicLong(0);
+    }
+
+    public static long getVersion() {
+        return EmojiCache.VERSION.get();
+    }
+
+    public static Long getIdEmoji(String emoji) {
+        return EmojiCache.ID_EMOJI_BY_EMOJI.get(emoji);
+    }
+
+    public static Long getIdGuildEmoji(long snowflakeEmoji) {
+        return EmojiCache.ID_EMOJI_BY_SNOWFLAKE_EMOJI.get(snowflakeEmoji);
+    }
+
+    public static void putIdEmoji(String emoji, long idEmoji, long version) {
+        // value read before an invalidation could reference an already purged emoji
+        synchronized (EmojiCache.VERSION) {
+            if (EmojiCache.VERSION.get() == version) {
+                EmojiCache.ID_EMOJI_BY_EMOJI.put(emoji, idEmoji);
+            }
+        }
+    }
+
+    public static void putIdGuildEmoji(long snowflakeEmoji, long idEmoji, long version) {
+        synchronized (EmojiCache.VERSION) {
+            if (EmojiCache.VERSION.get() == version) {
+                EmojiCache.ID_EMOJI_BY_SNOWFLAKE_EMOJI.put(snowflakeEmoji, idEmoji);
+            }
+        }
+    }
+
+    public static void putIdEmojiOnCommit(String emoji, long idEmoji, long version, SharedSessionContract session) {
+        // rows inserted by a transaction that is later rolled back must not be handed out to other sessions
+        EmojiCache.runOnCommit(() -> EmojiCache.putIdEmoji(emoji, idEmoji, version), session);
+    }
+
+    public static void putIdGuildEmojiOnCommit(long snowflakeEmoji, long idEmoji, long version, SharedSessionContract session) {
+        EmojiCache.runOnCommit(() -> EmojiCache.putIdGuildEmoji(snowflakeEmoji, idEmoji, version), session);
+    }
+
+    private static void runOnCommit(Runnable action, SharedSessionContract session) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
+    public static void invalidate() {
+        synchronized (EmojiCache.VERSION) {
+            EmojiCache.VERSION.incrementAndGet();
+            EmojiCache.ID_EMOJI_BY_EMOJI.clear();
+            EmojiCache.ID_EMOJI_BY_SNOWFLAKE_EMOJI.clear();
+        }
+    }
+
+    public static void invalidateOnCompletion(SharedSessionContract session) {
+        // entries cached while the purging transaction is running are dropped once it is finished
+        EmojiCache.invalidate();
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                EmojiCache.invalidate();
+            }
+        });
+    }
+}
@@ -0,0 +1,57 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.SharedSessionContract;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class MembershipCache {
+    private final BloomFilter bloomFilter;
+    private final Map<Long, Boolean> knownSnowflakes;
+
+    public MembershipCache(long expectedInsertions, double falsePositiveProbability, int maximumKnownSnowflakes) {
+        this.bloomFilter = new BloomFilter(expectedInsertions, falsePositiveProbability);
+        this.knownSnowflakes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Boolean> eldest) {
+                return this.size() > maximumKnownSnowflakes;
+            }
+        };
+    }
+
+    public boolean isKnown(long snowflake) {
+        // bloom filter answers most unknown snowflakes without taking the lock
+        if (!this.bloomFilter.mightContain(snowflake)) {
+            return false;
+        }
+
+        synchronized (this.knownSnowflakes) {
+            return this.knownSnowflakes.get(snowflake) != null;
+        }
+    }
+
+    public void add(long snowflake) {
+        this.bloomFilter.add(snowflake);
+        synchronized (this.knownSnowflakes) {
+            this.knownSnowflakes.put(snowflake, Boolean.TRUE);
+        }
+    }
+
+    public void addOnCommit(Collection<Long> snowflakes, SharedSessionContract session) {
+        // rows inserted by a transaction that is later rolled back must not be treated as known
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    snowflakes.forEach(MembershipCache.this::add);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,389 @@
+package org.database.cache;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class QuoteIdBitmap {
+    private static final int ARRAY_CONTAINER_MAX_SIZE = 4096;
+    private static final int BITMAP_CONTAINER_WORDS = 1024;
+
+    // ids are split into 48 bit keys and 16 bit values stored in sorted containers
+    private long[] keys;
+    private QuoteIdBitmap.Container[] containers;
+    private int containersCount;
+
+    public QuoteIdBitmap() {
+        this(4);
+    }
+
+    private QuoteIdBitmap(int capacity) {
+        this.keys = new long[capacity];
+        this.containers = new QuoteIdBitmap.Container[capacity];
+        this.containersCount = 0;
+    }
+
+    public static QuoteIdBitmap and(QuoteIdBitmap first, QuoteIdBitmap second) {
+        QuoteIdBitmap result = new QuoteIdBitmap(Math.max(1, Math.min(first.containersCount, second.containersCount)));
+
+        int i = 0;
+        int j = 0;
+        while (i < first.containersCount && j < second.containersCount) {
+            if (first.keys[i] < second.keys[j]) {
+                ++i;
+            } else if (first.keys[i] > second.keys[j]) {
+                ++j;
+            } else {
+                QuoteIdBitmap.Container container = first.containers[i].and(second.containers[j]);
+                if (container.getCardinality() > 0) {
+                    result.appendContainer(first.keys[i], container);
+                }
+
+                ++i;
+                ++j;
+            }
+        }
+
+        return result;
+    }
+
+    public static QuoteIdBitmap or(QuoteIdBitmap first, QuoteIdBitmap second) {
+        QuoteIdBitmap result = new QuoteIdBitmap(Math.max(1, first.containersCount + second.containersCount));
+
+        int i = 0;
+        int j = 0;
+        while (i < first.containersCount || j < second.containersCount) {
+            if (j == second.containersCount || (i < first.containersCount && first.keys[i] < second.keys[j])) {
+                result.appendContainer(first.keys[i], first.containers[i].copy());
+                ++i;
+            } else if (i == first.containersCount || first.keys[i] > second.keys[j]) {
+                result.appendContainer(second.keys[j], second.containers[j].copy());
+                ++j;
+            } else {
+                result.appendContainer(first.keys[i], first.containers[i].or(second.containers[j]));
+                ++i;
+                ++j;
+            }
+        }
+
+        return result;
+    }
+
+    public void add(long id) {
+        long key = id >>> 16;
+        char value = (char)id;
+
+        int index = Arrays.binarySearch(this.keys, 0, this.containersCount, key);
+        if (index >= 0) {
+            this.containers[index] = this.containers[index].add(value);
+            return;
+        }
+
+        index = -index - 1;
+        if (this.containersCount == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.containersCount * 2);
+            this.containers = Arrays.copyOf(this.containers, this.containersCount * 2);
+        }
+
+        System.arraycopy(this.keys, index, this.keys, index + 1, this.containersCount - index);
+        System.arraycopy(this.containers, index, this.containers, index + 1, this.containersCount - index);
+        this.keys[index] = key;
+        this.containers[index] = new QuoteIdBitmap.ArrayContainer().add(value);
+        ++this.containersCount;
+    }
+
+    public int getCardinality() {
+        int cardinality = 0;
+        for (int i = 0; i < this.containersCount; ++i) {
+            cardinality += this.containers[i].getCardinality();
+        }
+
+        return cardinality;
+    }
+
+    public long select(int rank) {
+        for (int i = 0; i < this.containersCount; ++i) {
+            int containerCardinality = this.containers[i].getCardinality();
+            if (rank < containerCardinality) {
+                return (this.keys[i] << 16) | this.containers[i].select(rank);
+            }
+
+            rank -= containerCardinality;
+        }
+
+        throw new IndexOutOfBoundsException(rank);
+    }
+
+    public List<Long> toList() {
+        List<Long> ids = new ArrayList<>(this.getCardinality());
+        for (int i = 0; i < this.containersCount; ++i) {
+            long high = this.keys[i] << 16;
+            this.containers[i].forEach(value -> ids.add(high | value));
+        }
+
+        return ids;
+    }
+
+    private void appendContainer(long key, QuoteIdBitmap.Container container) {
+        if (this.containersCount == this.keys.length) {
+            this.keys = Arrays.copyOf(this.keys, this.containersCount * 2);
+            this.containers = Arrays.copyOf(this.containers, this.containersCount * 2);
+        }
+
+        this.keys[this.containersCount] = key;
+        this.containers[this.containersCount] = container;
+        ++this.containersCount;
+    }
+
+    @FunctionalInterface
+    private interface ValueConsumer {
+        void accept(int value);
+    }
+
+    private interface Container {
+        QuoteIdBitmap.Container add(char value);
+        boolean contains(char value);
+        int getCardinality();
+        int select(int rank);
+        QuoteIdBitmap.Container and(QuoteIdBitmap.Container other);
+        QuoteIdBitmap.Container or(QuoteIdBitmap.Container other);
+        QuoteIdBitmap.Container copy();
+        void forEach(QuoteIdBitmap.ValueConsumer consumer);
+    }
+
+    private static class ArrayContainer implements QuoteIdBitmap.Container {
+        private char[] values;
+        private int size;
+
+        public ArrayContainer() {
+            this(new char[4], 0);
+        }
+
+        private ArrayContainer(char[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public QuoteIdBitmap.Container add(char value) {
+            int index = Arrays.binarySearch(this.values, 0, this.size, value);
+            if (index >= 0) {
+                return this;
+            }
+
+            if (this.size == QuoteIdBitmap.ARRAY_CONTAINER_MAX_SIZE) {
+                return this.toBitmapContainer().add(value);
+            }
+
+            index = -index - 1;
+            if (this.size == this.values.length) {
+                this.values = Arrays.copyOf(this.values, Math.min(Math.max(4, this.size * 2), QuoteIdBitmap.ARRAY_CONTAINER_MAX_SIZE));
+            }
+
+            System.arraycopy(this.values, index, this.values, index + 1, this.size - index);
+            this.values[index] = value;
+            ++this.size;
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(this.values, 0, this.size, value) >= 0;
+        }
+
+        @Override
+        public int getCardinality() {
+            return this.size;
+        }
+
+        @Override
+        public int select(int rank) {
+            return this.values[rank];
+        }
+
+        @Override
+        public QuoteIdBitmap.Container and(QuoteIdBitmap.Container other) {
+            char[] intersection = new char[Math.min(this.size, other.getCardinality())];
+            int intersectionSize = 0;
+
+            if (other instanceof QuoteIdBitmap.ArrayContainer otherArray) {
+                int i = 0;
+                int j = 0;
+                while (i < this.size && j < otherArray.size) {
+                    if (this.values[i] < otherArray.values[j]) {
+                        ++i;
+                    } else if (this.values[i] > otherArray.values[j]) {
+                        ++j;
+                    } else {
+                        intersection[intersectionSize++] = this.values[i];
+                        ++i;
+                        ++j;
+                    }
+                }
+            } else {
+                for (int i = 0; i < this.size; ++i) {
+                    if (other.contains(this.values[i])) {
+                        intersection[intersectionSize++] = this.values[i];
+                    }
+                }
+            }
+
+            return new QuoteIdBitmap.ArrayContainer(intersection, intersectionSize);
+        }
+
+        @Override
+        public QuoteIdBitmap.Container or(QuoteIdBitmap.Container other) {
+            if (!(other instanceof QuoteIdBitmap.ArrayContainer otherArray)) {
+                return other.or(this);
+            }
+
+            char[] union = new char[this.size + otherArray.size];
+            int unionSize = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.size || j < otherArray.size) {
+                if (j == otherArray.size || (i < this.size && this.values[i] < otherArray.values[j])) {
+                    union[unionSize++] = this.values[i++];
+                } else if (i == this.size || this.values[i] > otherArray.values[j]) {
+                    union[unionSize++] = otherArray.values[j++];
+                } else {
+                    union[unionSize++] = this.values[i];
+                    ++i;
+                    ++j;
+                }
+            }
+
+            QuoteIdBitmap.ArrayContainer result = new QuoteIdBitmap.ArrayContainer(union, unionSize);
+            return unionSize > QuoteIdBitmap.ARRAY_CONTAINER_MAX_SIZE ? result.toBitmapContainer() : result;
+        }
+
+        @Override
+        public QuoteIdBitmap.Container copy() {
+            return new QuoteIdBitmap.ArrayContainer(Arrays.copyOf(this.values, this.size), this.size);
+        }
+
+        @Override
+        public void forEach(QuoteIdBitmap.ValueConsumer consumer) {
+            for (int i = 0; i < this.size; ++i) {
+                consumer.accept(this.values[i]);
+            }
+        }
+
+        private QuoteIdBitmap.BitmapContainer toBitmapContainer() {
+            QuoteIdBitmap.BitmapContainer bitmapContainer = new QuoteIdBitmap.BitmapContainer(new long[QuoteIdBitmap.BITMAP_CONTAINER_WORDS], 0);
+            for (int i = 0; i < this.size; ++i) {
+                bitmapContainer.add(this.values[i]);
+            }
+
+            return bitmapContainer;
+        }
+    }
+
+    private static class BitmapContainer implements QuoteIdBitmap.Container {
+        private final long[] words;
+        private int cardinality;
+
+        private BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        public QuoteIdBitmap.Container add(char value) {
+            long mask = 1L << value;
+            if ((this.words[value >>> 6] & mask) == 0) {
+                this.words[value >>> 6] |= mask;
+                ++this.cardinality;
+            }
+
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (this.words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int getCardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        public int select(int rank) {
+            for (int i = 0; i < this.words.length; ++i) {
+                int wordCardinality = Long.bitCount(this.words[i]);
+                if (rank < wordCardinality) {
+                    long word = this.words[i];
+                    for (int j = 0; j < rank; ++j) {
+                        word &= word - 1;
+                    }
+
+                    return (i << 6) + Long.numberOfTrailingZeros(word);
+                }
+
+                rank -= wordCardinality;
+            }
+
+            throw new IndexOutOfBoundsException(rank);
+        }
+
+        @Override
+        public QuoteIdBitmap.Container and(QuoteIdBitmap.Container other) {
+            if (!(other instanceof QuoteIdBitmap.BitmapContainer otherBitmap)) {
+                return other.and(this);
+            }
+
+            long[] intersection = new long[QuoteIdBitmap.BITMAP_CONTAINER_WORDS];
+            int intersectionCardinality = 0;
+            for (int i = 0; i < intersection.length; ++i) {
+                intersection[i] = this.words[i] & otherBitmap.words[i];
+                intersectionCardinality += Long.bitCount(intersection[i]);
+            }
+
+            QuoteIdBitmap.BitmapContainer result = new QuoteIdBitmap.BitmapContainer(intersection, intersectionCardinality);
+            return intersectionCardinality <= QuoteIdBitmap.ARRAY_CONTAINER_MAX_SIZE ? result.toArrayContainer() : result;
+        }
+
+        @Override
+        public QuoteIdBitmap.Container or(QuoteIdBitmap.Container other) {
+            QuoteIdBitmap.BitmapContainer result = new QuoteIdBitmap.BitmapContainer(this.words.clone(), this.cardinality);
+            if (other instanceof QuoteIdBitmap.BitmapContainer otherBitmap) {
+                int unionCardinality = 0;
+                for (int i = 0; i < result.words.length; ++i) {
+                    result.words[i] |= otherBitmap.words[i];
+                    unionCardinality += Long.bitCount(result.words[i]);
+                }
+
+                result.cardinality = unionCardinality;
+            } else {
+                other.forEach(value -> result.add((char)value));
+            }
+
+            return result;
+        }
+
+        @Override
+        public QuoteIdBitmap.Container copy() {
+            return new QuoteIdBitmap.BitmapContainer(this.words.clone(), this.cardinality);
+        }
+
+        @Override
+        public void forEach(QuoteIdBitmap.ValueConsumer consumer) {
+            for (int i = 0; i < this.words.length; ++i) {
+                long word = this.words[i];
+                while (word != 0) {
+                    consumer.accept((i << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        private QuoteIdBitmap.ArrayContainer toArrayContainer() {
+            char[] values = new char[this.cardinality];
+            int[] size = { 0 };
+            this.forEach(value -> values[size[0]++] = (char)value);
+            return new QuoteIdBitmap.ArrayContainer(values, this.cardinality);
+        }
+    }
+}
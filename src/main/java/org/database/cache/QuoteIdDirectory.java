@@ -0,0 +1,179 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.SharedSessionContract;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntToLongFunction;
+
+public class QuoteIdDirectory {
+    private final QuoteIdDirectory.IdList idsQuotes;
+    private final Map<Long, QuoteIdBitmap> idsQuotesByTag;
+    private final Object loadLock;
+    private boolean loaded;
+    private Map<Long, Collection<Long>> quotesCommittedWhileLoading;
+
+    public QuoteIdDirectory() {
+        this.idsQuotes = new QuoteIdDirectory.IdList();
+        this.idsQuotesByTag = new HashMap<>();
+        this.loadLock = new Object();
+        this.loaded = false;
+        this.quotesCommittedWhileLoading = null;
+    }
+
+    private static List<Long> sample(int idsCount, long sampleSize, IntToLongFunction idAtPosition) {
+        List<Long> sampledIds = new ArrayList<>();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+
+        if (sampleSize >= idsCount) {
+            for (int i = 0; i < idsCount; ++i) {
+                sampledIds.add(idAtPosition.applyAsLong(i));
+            }
+        } else {
+            // Floyd's algorithm picks distinct positions without copying the directory
+            Set<Integer> sampledPositions = new HashSet<>();
+            for (int j = idsCount - (int)sampleSize; j < idsCount; ++j) {
+                if (!sampledPositions.add(random.nextInt(j + 1))) {
+                    sampledPositions.add(j);
+                }
+            }
+
+            sampledPositions.forEach(position -> sampledIds.add(idAtPosition.applyAsLong(position)));
+        }
+
+        Collections.shuffle(sampledIds, random);
+        return sampledIds;
+    }
+
+    public void loadIfNeeded(Runnable loader) {
+        synchronized (this.loadLock) {
+            synchronized (this) {
+                if (this.loaded) {
+                    return;
+                }
+
+                this.quotesCommittedWhileLoading = new LinkedHashMap<>();
+            }
+
+            try {
+                loader.run();
+            } catch (RuntimeException exception) {
+                synchronized (this) {
+                    // partially loaded ids are discarded, the next load starts from an empty directory
+                    this.idsQuotes.clear();
+                    this.idsQuotesByTag.clear();
+                    this.quotesCommittedWhileLoading = null;
+                }
+                throw exception;
+            }
+
+            synchronized (this) {
+                // quotes committed during the load may or may not be part of the loaded view, only the missing ones are replayed
+                for (int i = 0; i < this.idsQuotes.size; ++i) {
+                    this.quotesCommittedWhileLoading.remove(this.idsQuotes.ids[i]);
+                }
+                this.quotesCommittedWhileLoading.forEach(this::addQuoteWithTags);
+
+                this.quotesCommittedWhileLoading = null;
+                this.loaded = true;
+            }
+        }
+    }
+
+    private void addQuoteWithTags(long idQuote, Collection<Long> idsTags) {
+        this.addQuote(idQuote);
+        idsTags.forEach(idTag -> this.addQuoteTag(idTag, idQuote));
+    }
+
+    public synchronized void addQuote(long idQuote) {
+        this.idsQuotes.add(idQuote);
+    }
+
+    public synchronized void addQuoteTag(long idTag, long idQuote) {
+        this.idsQuotesByTag.computeIfAbsent(idTag, _ -> new QuoteIdBitmap()).add(idQuote);
+    }
+
+    public void addOnCommit(long idQuote, Collection<Long> idsTags, SharedSessionContract session) {
+        // quotes persisted by a transaction that is later rolled back must not be sampled
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != Status.STATUS_COMMITTED) {
+                    return;
+                }
+
+                synchronized (QuoteIdDirectory.this) {
+                    // directory which is not loaded yet reads the new quote from the database
+                    if (QuoteIdDirectory.this.loaded) {
+                        QuoteIdDirectory.this.addQuoteWithTags(idQuote, idsTags);
+                    } else if (QuoteIdDirectory.this.quotesCommittedWhileLoading != null) {
+                        QuoteIdDirectory.this.quotesCommittedWhileLoading.put(idQuote, idsTags);
+                    }
+                }
+            }
+        });
+    }
+
+    public synchronized List<Long> sampleQuotes(long sampleSize) {
+        return QuoteIdDirectory.sample(this.idsQuotes.size, sampleSize, position -> this.idsQuotes.ids[position]);
+    }
+
+    public synchronized List<Long> sampleQuotesWithTags(Collection<Long> idsTags, boolean matchAll, long sampleSize) {
+        QuoteIdBitmap matchingIdsQuotes = this.matchTags(idsTags, matchAll);
+        int matchingCount = matchingIdsQuotes.getCardinality();
+        if (sampleSize >= matchingCount) {
+            List<Long> idsQuotes = matchingIdsQuotes.toList();
+            Collections.shuffle(idsQuotes, ThreadLocalRandom.current());
+            return idsQuotes;
+        }
+
+        return QuoteIdDirectory.sample(matchingCount, sampleSize, matchingIdsQuotes::select);
+    }
+
+    public synchronized List<Long> findQuotesWithTags(Collection<Long> idsTags, boolean matchAll) {
+        return this.matchTags(idsTags, matchAll).toList();
+    }
+
+    private QuoteIdBitmap matchTags(Collection<Long> idsTags, boolean matchAll) {
+        QuoteIdBitmap matchingIdsQuotes = null;
+        for (long idTag : idsTags) {
+            QuoteIdBitmap tagIdsQuotes = this.idsQuotesByTag.getOrDefault(idTag, new QuoteIdBitmap());
+            if (matchingIdsQuotes == null) {
+                matchingIdsQuotes = tagIdsQuotes;
+            } else {
+                matchingIdsQuotes = matchAll
+                        ? QuoteIdBitmap.and(matchingIdsQuotes, tagIdsQuotes)
+                        : QuoteIdBitmap.or(matchingIdsQuotes, tagIdsQuotes);
+            }
+        }
+
+        return matchingIdsQuotes == null ? new QuoteIdBitmap() : matchingIdsQuotes;
+    }
+
+    private static class IdList {
+        private long[] ids;
+        private int size;
+
+        public IdList() {
+            this.ids = new long[16];
+            this.size = 0;
+        }
+
+        public void add(long id) {
+            if (this.size == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.size * 2);
+            }
+
+            this.ids[this.size++] = id;
+        }
+
+        public void clear() {
+            this.size = 0;
+        }
+    }
+}
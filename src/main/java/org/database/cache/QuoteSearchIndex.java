@@ -0,0 +1,181 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.hibernate.SharedSessionContract;
+import org.utility.Helper;
+
+import java.util.*;
+
+public class QuoteSearchIndex {
+    private static final double BM25_K1 = 1.2;
+    private static final double BM25_B = 0.75;
+
+    private final Map<String, QuoteSearchIndex.PostingList> postingLists;
+    private final Map<Long, Integer> documentLengths;
+    private long totalDocumentsLength;
+
+    public QuoteSearchIndex() {
+        this.postingLists = new HashMap<>();
+        this.documentLengths = new HashMap<>();
+        this.totalDocumentsLength = 0;
+    }
+
+    public synchronized void add(long idQuote, String quote) {
+        if (this.documentLengths.containsKey(idQuote)) {
+            return;
+        }
+
+        List<String> tokens = Helper.normalizeAndTokenizeString(quote);
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        tokens.forEach(token -> termFrequencies.merge(token, 1, Integer::sum));
+
+        termFrequencies.forEach((term, frequency) ->
+                this.postingLists.computeIfAbsent(term, _ -> new QuoteSearchIndex.PostingList()).add(idQuote, frequency)
+        );
+        this.documentLengths.put(idQuote, tokens.size());
+        this.totalDocumentsLength += tokens.size();
+    }
+
+    public void addOnCommit(long idQuote, String quote, SharedSessionContract session) {
+        // quotes persisted by a transaction that is later rolled back must not be searchable
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    QuoteSearchIndex.this.add(idQuote, quote);
+                }
+            }
+        });
+    }
+
+    public synchronized List<Long> search(String query, long resultsCount) {
+        if (this.documentLengths.isEmpty()) {
+            return List.of();
+        }
+
+        int documentsCount = this.documentLengths.size();
+        double averageDocumentLength = (double)this.totalDocumentsLength / documentsCount;
+
+        Map<Long, Double> scores = new HashMap<>();
+        for (String term : new LinkedHashSet<>(Helper.normalizeAndTokenizeString(query))) {
+            QuoteSearchIndex.PostingList postingList = this.postingLists.get(term);
+            if (postingList == null) {
+                continue;
+            }
+
+            double idf = Math.log(1 + (documentsCount - postingList.documentsCount + 0.5) / (postingList.documentsCount + 0.5));
+            postingList.forEach((idQuote, frequency) -> {
+                double lengthNormalization = 1 - QuoteSearchIndex.BM25_B
+                        + QuoteSearchIndex.BM25_B * this.documentLengths.get(idQuote) / averageDocumentLength;
+                double termScore = idf * frequency * (QuoteSearchIndex.BM25_K1 + 1) / (frequency + QuoteSearchIndex.BM25_K1 * lengthNormalization);
+                scores.merge(idQuote, termScore, Double::sum);
+            });
+        }
+
+        // only the best results are kept, ties are resolved in favor of newer quotes
+        Comparator<Map.Entry<Long, Double>> comparator = Map.Entry.<Long, Double>comparingByValue()
+                .thenComparing(Map.Entry.comparingByKey());
+        PriorityQueue<Map.Entry<Long, Double>> bestResults = new PriorityQueue<>(comparator);
+        for (Map.Entry<Long, Double> score : scores.entrySet()) {
+            bestResults.add(score);
+            if (bestResults.size() > resultsCount) {
+                bestResults.poll();
+            }
+        }
+
+        List<Long> idsQuotes = new ArrayList<>(bestResults.size());
+        while (!bestResults.isEmpty()) {
+            idsQuotes.add(bestResults.poll().getKey());
+        }
+
+        Collections.reverse(idsQuotes);
+        return idsQuotes;
+    }
+
+    private static class PostingList {
+        private byte[] data;
+        private int length;
+        private int documentsCount;
+        private long lastIdQuote;
+
+        public PostingList() {
+            this.data = new byte[16];
+            this.length = 0;
+            this.documentsCount = 0;
+            this.lastIdQuote = 0;
+        }
+
+        public void add(long idQuote, int frequency) {
+            if (idQuote <= this.lastIdQuote) {
+                // ids are normally appended in increasing order, an out of order id needs the list to be re-encoded
+                TreeMap<Long, Integer> entries = new TreeMap<>();
+                this.forEach(entries::put);
+                entries.put(idQuote, frequency);
+
+                this.length = 0;
+                this.documentsCount = 0;
+                this.lastIdQuote = 0;
+                entries.forEach(this::append);
+                return;
+            }
+
+            this.append(idQuote, frequency);
+        }
+
+        private void append(long idQuote, int frequency) {
+            // ids are stored as variable length gaps from the previous id, followed by the term frequency
+            this.writeVarLong(idQuote - this.lastIdQuote);
+            this.writeVarLong(frequency);
+            this.lastIdQuote = idQuote;
+            ++this.documentsCount;
+        }
+
+        private void writeVarLong(long value) {
+            if (this.data.length - this.length < 10) {
+                this.data = Arrays.copyOf(this.data, this.data.length * 2);
+            }
+
+            while ((value & ~0x7FL) != 0) {
+                this.data[this.length++] = (byte)((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            this.data[this.length++] = (byte)value;
+        }
+
+        public void forEach(QuoteSearchIndex.PostingConsumer consumer) {
+            long idQuote = 0;
+            int position = 0;
+            while (position < this.length) {
+                long gap = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte current = this.data[position++];
+                    gap |= (long)(current & 0x7F) << shift;
+                    if ((current & 0x80) == 0) {
+                        break;
+                    }
+                }
+
+                int frequency = 0;
+                for (int shift = 0; ; shift += 7) {
+                    byte current = this.data[position++];
+                    frequency |= (current & 0x7F) << shift;
+                    if ((current & 0x80) == 0) {
+                        break;
+                    }
+                }
+
+                idQuote += gap;
+                consumer.accept(idQuote, frequency);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PostingConsumer {
+        void accept(long idQuote, int frequency);
+    }
+}
@@ -0,0 +1,144 @@
+package org.database.cache;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+public class QuoteSignatureStore implements AutoCloseable {
+    public static final int SIGNATURE_BYTES = 128;
+    public static final int SIGNATURE_LONGS = QuoteSignatureStore.SIGNATURE_BYTES / Long.BYTES;
+    // records are 8 byte aligned, the quote id is followed by the signature words
+    public static final int RECORD_LONGS = 1 + QuoteSignatureStore.SIGNATURE_LONGS;
+    public static final int RECORD_SIGNATURE_OFFSET = 1;
+
+    private static final int MAGIC = 0x4B5A5153;
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 24;
+    private static final int RECORD_BYTES = Long.BYTES + QuoteSignatureStore.SIGNATURE_BYTES;
+    private static final int INITIAL_CAPACITY = 1_024;
+
+    private final FileChannel fileChannel;
+    private MappedByteBuffer buffer;
+    private LongBuffer longBuffer;
+    private int capacity;
+    private int recordsCount;
+    private long maxIdQuote;
+
+    private QuoteSignatureStore(FileChannel fileChannel) {
+        this.fileChannel = fileChannel;
+    }
+
+    public static QuoteSignatureStore open(Path path) {
+        try {
+            Files.createDirectories(path.getParent());
+            FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+            QuoteSignatureStore store = new QuoteSignatureStore(fileChannel);
+            store.load();
+            return store;
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private void load() throws IOException {
+        long fileRecords = (this.fileChannel.size() - QuoteSignatureStore.HEADER_BYTES) / QuoteSignatureStore.RECORD_BYTES;
+        this.map((int)Math.max(QuoteSignatureStore.INITIAL_CAPACITY, fileRecords));
+
+        if (this.buffer.getInt(0) != QuoteSignatureStore.MAGIC || this.buffer.getInt(4) != QuoteSignatureStore.FORMAT_VERSION) {
+            this.clear();
+            return;
+        }
+
+        // records written after the last header update belong to an interrupted append and are ignored
+        this.recordsCount = (int)Math.min(this.buffer.getInt(8), fileRecords);
+        this.maxIdQuote = this.buffer.getLong(12);
+    }
+
+    private void map(int capacity) throws IOException {
+        this.buffer = this.fileChannel.map(
+                FileChannel.MapMode.READ_WRITE, 0, QuoteSignatureStore.HEADER_BYTES + (long)capacity * QuoteSignatureStore.RECORD_BYTES
+        );
+        this.longBuffer = this.buffer.asLongBuffer();
+        this.capacity = capacity;
+    }
+
+    private void writeHeader() {
+        this.buffer.putInt(0, QuoteSignatureStore.MAGIC);
+        this.buffer.putInt(4, QuoteSignatureStore.FORMAT_VERSION);
+        this.buffer.putInt(8, this.recordsCount);
+        this.buffer.putLong(12, this.maxIdQuote);
+    }
+
+    private int getRecordOffset(int slot) {
+        return QuoteSignatureStore.HEADER_BYTES + slot * QuoteSignatureStore.RECORD_BYTES;
+    }
+
+    public boolean isUpToDate(long quotesCount, long maxIdQuote) {
+        return this.recordsCount == quotesCount && this.maxIdQuote == maxIdQuote;
+    }
+
+    public void clear() {
+        this.recordsCount = 0;
+        this.maxIdQuote = 0;
+        this.writeHeader();
+    }
+
+    public int append(long idQuote, byte[] signature) {
+        assert signature.length == QuoteSignatureStore.SIGNATURE_BYTES;
+
+        if (this.recordsCount == this.capacity) {
+            try {
+                this.map(this.capacity * 2);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+        int slot = this.recordsCount;
+        int offset = this.getRecordOffset(slot);
+        this.buffer.putLong(offset, idQuote);
+        this.buffer.put(offset + Long.BYTES, signature);
+
+        ++this.recordsCount;
+        this.maxIdQuote = Math.max(this.maxIdQuote, idQuote);
+        this.writeHeader();
+        return slot;
+    }
+
+    public int getRecordsCount() {
+        return this.recordsCount;
+    }
+
+    public long getIdQuote(int slot) {
+        return this.buffer.getLong(this.getRecordOffset(slot));
+    }
+
+    public byte getSignatureByte(int slot, int index) {
+        return this.buffer.get(this.getRecordOffset(slot) + Long.BYTES + index);
+    }
+
+    public void copyRecords(int firstSlot, int slotsCount, long[] destination) {
+        int index = (QuoteSignatureStore.HEADER_BYTES / Long.BYTES) + firstSlot * QuoteSignatureStore.RECORD_LONGS;
+        this.longBuffer.get(index, destination, 0, slotsCount * QuoteSignatureStore.RECORD_LONGS);
+    }
+
+    public void flush() {
+        this.buffer.force();
+    }
+
+    @Override
+    public void close() {
+        try {
+            this.flush();
+            this.fileChannel.close();
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+}
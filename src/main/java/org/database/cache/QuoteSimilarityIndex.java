@@ -0,0 +1,265 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.Main;
+import org.hibernate.SharedSessionContract;
+
+import java.io.Serial;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntUnaryOperator;
+
+public class QuoteSimilarityIndex {
+    // with 12 bit bands a pair at the warning threshold (80 % equal bits) shares a band with probability above 99.7 %,
+    // unrelated quotes (about 50 % equal bits) become candidates with probability around 2 %
+    private static final int BAND_BITS = 12;
+    private static final int BAND_COUNT = 85;
+    private static final int SIGNATURE_BITS = QuoteSignatureStore.SIGNATURE_BYTES * Byte.SIZE;
+    private static final int PARALLEL_SCAN_THRESHOLD;
+    private static final ForkJoinPool SCAN_POOL;
+
+    static {
+        PARALLEL_SCAN_THRESHOLD = Integer.parseInt(Main.DOTENV.get("QUOTE_PARALLEL_SCAN_THRESHOLD", "50000"));
+        SCAN_POOL = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    }
+
+    private final QuoteSignatureStore signatureStore;
+    private final Map<Long, Integer> slots;
+    private final Map<Integer, QuoteSimilarityIndex.SlotList> buckets;
+    private final Object loadLock;
+    private boolean loaded;
+    private Map<Long, byte[]> signaturesCommittedWhileLoading;
+
+    public QuoteSimilarityIndex(Path signatureStorePath) {
+        this.signatureStore = QuoteSignatureStore.open(signatureStorePath);
+        this.slots = new HashMap<>();
+        this.buckets = new HashMap<>();
+        this.loadLock = new Object();
+        this.loaded = false;
+        this.signaturesCommittedWhileLoading = null;
+    }
+
+    private static int getBucketKey(IntUnaryOperator signatureByte, int band) {
+        int bandValue = 0;
+        for (int bit = band * QuoteSimilarityIndex.BAND_BITS; bit < (band + 1) * QuoteSimilarityIndex.BAND_BITS; ++bit) {
+            bandValue = (bandValue << 1) | ((signatureByte.applyAsInt(bit >>> 3) >>> (bit & 7)) & 1);
+        }
+
+        return (band << QuoteSimilarityIndex.BAND_BITS) | bandValue;
+    }
+
+    public void loadIfNeeded(Runnable loader) {
+        synchronized (this.loadLock) {
+            synchronized (this) {
+                if (this.loaded) {
+                    return;
+                }
+
+                this.signaturesCommittedWhileLoading = new LinkedHashMap<>();
+            }
+
+            try {
+                loader.run();
+            } catch (RuntimeException exception) {
+                synchronized (this) {
+                    this.signaturesCommittedWhileLoading = null;
+                }
+                throw exception;
+            }
+
+            synchronized (this) {
+                Map<Long, byte[]> committedSignatures = this.signaturesCommittedWhileLoading;
+                this.signaturesCommittedWhileLoading = null;
+                this.load();
+
+                // quotes committed during the load may be missing from a rebuilt store, only those not indexed yet are appended
+                committedSignatures.forEach(this::add);
+            }
+        }
+    }
+
+    public synchronized boolean isSignatureStoreUpToDate(long quotesCount, long maxIdQuote) {
+        return this.signatureStore.isUpToDate(quotesCount, maxIdQuote);
+    }
+
+    public synchronized void rebuildSignatureStore(Map<Long, byte[]> signatures) {
+        this.signatureStore.clear();
+        signatures.forEach(this.signatureStore::append);
+        this.signatureStore.flush();
+    }
+
+    private void load() {
+        // signatures stay in the memory mapped store, only their slots are kept on the heap
+        this.slots.clear();
+        this.buckets.clear();
+        for (int slot = 0; slot < this.signatureStore.getRecordsCount(); ++slot) {
+            this.indexSlot(slot);
+        }
+
+        this.loaded = true;
+    }
+
+    private void indexSlot(int slot) {
+        if (this.slots.putIfAbsent(this.signatureStore.getIdQuote(slot), slot) != null) {
+            return;
+        }
+
+        for (int band = 0; band < QuoteSimilarityIndex.BAND_COUNT; ++band) {
+            int bucketKey = QuoteSimilarityIndex.getBucketKey(index -> this.signatureStore.getSignatureByte(slot, index), band);
+            this.buckets.computeIfAbsent(bucketKey, _ -> new QuoteSimilarityIndex.SlotList()).add(slot);
+        }
+    }
+
+    public synchronized void add(long idQuote, byte[] signature) {
+        if (this.slots.containsKey(idQuote)) {
+            return;
+        }
+        if (this.signaturesCommittedWhileLoading != null) {
+            // store can still be rebuilt by the running load, the signature is appended once it is finished
+            this.signaturesCommittedWhileLoading.put(idQuote, signature);
+            return;
+        }
+
+        int slot = this.signatureStore.append(idQuote, signature);
+        if (this.loaded) {
+            this.indexSlot(slot);
+        }
+    }
+
+    public void addOnCommit(long idQuote, byte[] signature, SharedSessionContract session) {
+        // quotes persisted by a transaction that is later rolled back must not be reported as similar
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    QuoteSimilarityIndex.this.add(idQuote, signature);
+                }
+            }
+        });
+    }
+
+    public synchronized Map<Long, Double> findSimilar(byte[] signature, double maxDistance) {
+        // slots are deduplicated in a bitmap, a quote usually shares several bands with a similar one
+        BitSet candidateSlots = new BitSet(this.signatureStore.getRecordsCount());
+        for (int band = 0; band < QuoteSimilarityIndex.BAND_COUNT; ++band) {
+            QuoteSimilarityIndex.SlotList bucket = this.buckets.get(QuoteSimilarityIndex.getBucketKey(index -> signature[index], band));
+            if (bucket != null) {
+                for (int i = 0; i < bucket.size; ++i) {
+                    candidateSlots.set(bucket.slots[i]);
+                }
+            }
+        }
+
+        long[] packedSignature = SignatureKernel.pack(signature);
+        int maxDifferentBits = (int)Math.floor(maxDistance * QuoteSimilarityIndex.SIGNATURE_BITS);
+        if (candidateSlots.cardinality() * 4L > this.signatureStore.getRecordsCount()) {
+            // sequential scan over the whole store is cheaper than random access to most of it
+            return this.findSimilarExhaustive(packedSignature, maxDifferentBits);
+        }
+
+        // signature components are single bits, the fraction of equal components equals the fraction of equal bits
+        Map<Long, Double> similarQuotes = new HashMap<>();
+        long[] record = new long[QuoteSignatureStore.RECORD_LONGS];
+        for (int slot = candidateSlots.nextSetBit(0); slot >= 0; slot = candidateSlots.nextSetBit(slot + 1)) {
+            this.signatureStore.copyRecords(slot, 1, record);
+            int differentBits = SignatureKernel.countDifferentBits(packedSignature, record, QuoteSignatureStore.RECORD_SIGNATURE_OFFSET);
+            if (differentBits <= maxDifferentBits) {
+                similarQuotes.put(record[0], (double)differentBits / QuoteSimilarityIndex.SIGNATURE_BITS);
+            }
+        }
+
+        return similarQuotes;
+    }
+
+    public synchronized Map<Long, Double> findSimilarExhaustive(long[] packedSignature, int maxDifferentBits) {
+        QuoteSimilarityIndex.ScanTask scanTask = new QuoteSimilarityIndex.ScanTask(
+                this.signatureStore, packedSignature, maxDifferentBits, 0, this.signatureStore.getRecordsCount()
+        );
+
+        Map<Long, Double> similarQuotes = new HashMap<>();
+        List<long[]> matches = this.signatureStore.getRecordsCount() >= QuoteSimilarityIndex.PARALLEL_SCAN_THRESHOLD
+                ? QuoteSimilarityIndex.SCAN_POOL.invoke(scanTask)
+                : scanTask.compute();
+        matches.forEach(match -> similarQuotes.put(match[0], (double)match[1] / QuoteSimilarityIndex.SIGNATURE_BITS));
+        return similarQuotes;
+    }
+
+    private static class SlotList {
+        private int[] slots;
+        private int size;
+
+        public SlotList() {
+            this.slots = new int[4];
+            this.size = 0;
+        }
+
+        public void add(int slot) {
+            if (this.size == this.slots.length) {
+                this.slots = Arrays.copyOf(this.slots, this.size * 2);
+            }
+
+            this.slots[this.size++] = slot;
+        }
+    }
+
+    private static class ScanTask extends RecursiveTask<List<long[]>> {
+        @Serial
+        private static final long serialVersionUID = 1L;
+        private static final int LEAF_SLOTS = 2_048;
+
+        // tasks are never serialized, the store is only shared between forked subtasks
+        private final transient QuoteSignatureStore signatureStore;
+        private final long[] packedSignature;
+        private final int maxDifferentBits;
+        private final int firstSlot;
+        private final int endSlot;
+
+        public ScanTask(QuoteSignatureStore signatureStore, long[] packedSignature, int maxDifferentBits, int firstSlot, int endSlot) {
+            this.signatureStore = signatureStore;
+            this.packedSignature = packedSignature;
+            this.maxDifferentBits = maxDifferentBits;
+            this.firstSlot = firstSlot;
+            this.endSlot = endSlot;
+        }
+
+        @Override
+        protected List<long[]> compute() {
+            if (this.endSlot - this.firstSlot > ScanTask.LEAF_SLOTS) {
+                int middleSlot = (this.firstSlot + this.endSlot) >>> 1;
+                ScanTask left = new ScanTask(this.signatureStore, this.packedSignature, this.maxDifferentBits, this.firstSlot, middleSlot);
+                ScanTask right = new ScanTask(this.signatureStore, this.packedSignature, this.maxDifferentBits, middleSlot, this.endSlot);
+
+                left.fork();
+                List<long[]> matches = new ArrayList<>(right.compute());
+                matches.addAll(left.join());
+                return matches;
+            }
+
+            // records of a leaf are copied off the mapped store in one bulk read and compared as a packed array
+            List<long[]> matches = new ArrayList<>();
+            long[] records = new long[Math.min(ScanTask.LEAF_SLOTS, this.endSlot - this.firstSlot) * QuoteSignatureStore.RECORD_LONGS];
+            for (int slot = this.firstSlot; slot < this.endSlot; slot += ScanTask.LEAF_SLOTS) {
+                int slotsCount = Math.min(ScanTask.LEAF_SLOTS, this.endSlot - slot);
+                this.signatureStore.copyRecords(slot, slotsCount, records);
+
+                for (int i = 0; i < slotsCount; ++i) {
+                    int recordOffset = i * QuoteSignatureStore.RECORD_LONGS;
+                    int differentBits = SignatureKernel.countDifferentBits(
+                            this.packedSignature, records, recordOffset + QuoteSignatureStore.RECORD_SIGNATURE_OFFSET
+                    );
+                    if (differentBits <= this.maxDifferentBits) {
+                        matches.add(new long[] { records[recordOffset], differentBits });
+                    }
+                }
+            }
+
+            return matches;
+        }
+    }
+}
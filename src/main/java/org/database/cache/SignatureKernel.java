@@ -0,0 +1,22 @@
+package org.database.cache;
+
+import java.nio.ByteBuffer;
+
+public class SignatureKernel {
+    public static long[] pack(byte[] signature) {
+        // byte order matches the memory mapped store, both are read as big endian longs
+        long[] packedSignature = new long[signature.length / Long.BYTES];
+        ByteBuffer.wrap(signature).asLongBuffer().get(packedSignature);
+        return packedSignature;
+    }
+
+    public static int countDifferentBits(long[] packedSignature, long[] words, int offset) {
+        // plain counted loop over primitive arrays, kept simple so that the JIT can unroll and vectorize it
+        int differentBits = 0;
+        for (int i = 0; i < packedSignature.length; ++i) {
+            differentBits += Long.bitCount(packedSignature[i] ^ words[offset + i]);
+        }
+
+        return differentBits;
+    }
+}
@@ -0,0 +1,117 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.database.dto.TagDto;
+import org.hibernate.SharedSessionContract;
+
+import java.util.*;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+public class TagCache {
+    private long version;
+    private TagCache.Snapshot snapshot;
+
+    public TagCache() {
+        this.version = 0;
+        this.snapshot = null;
+    }
+
+    public TagCache.Snapshot getSnapshot(Supplier<List<TagDto>> loader) {
+        long loadedVersion;
+        synchronized (this) {
+            if (this.snapshot != null) {
+                return this.snapshot;
+            }
+
+            loadedVersion = this.version;
+        }
+
+        TagCache.Snapshot loadedSnapshot = new TagCache.Snapshot(loadedVersion, loader.get());
+        synchronized (this) {
+            // snapshot loaded while a tag change was committing is used once but not kept
+            if (this.version == loadedVersion && this.snapshot == null) {
+                this.snapshot = loadedSnapshot;
+            }
+        }
+
+        return loadedSnapshot;
+    }
+
+    public synchronized void invalidate() {
+        ++this.version;
+        this.snapshot = null;
+    }
+
+    public void invalidateOnCommit(SharedSessionContract session) {
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    TagCache.this.invalidate();
+                }
+            }
+        });
+    }
+
+    public static class Snapshot {
+        private final long version;
+        private final Map<String, TagDto> tagsByName;
+        private final TagDto[] tagsSortedByName;
+        private final TagDto[] tagsSortedByDateModified;
+
+        private Snapshot(long version, List<TagDto> tagDtos) {
+            this.version = version;
+
+            this.tagsByName = new HashMap<>();
+            tagDtos.forEach(tagDto -> this.tagsByName.put(tagDto.getTag(), tagDto));
+
+            this.tagsSortedByName = tagDtos.toArray(TagDto[]::new);
+            Arrays.sort(this.tagsSortedByName, Comparator.comparing(TagDto::getTag));
+
+            this.tagsSortedByDateModified = tagDtos.toArray(TagDto[]::new);
+            Arrays.sort(this.tagsSortedByDateModified, Comparator.comparing(TagDto::getDateModified).thenComparingLong(TagDto::getIdTag));
+        }
+
+        private static List<TagDto> takeFirst(TagDto[] tagDtos, boolean reversed, long count) {
+            int resultsCount = (int)Math.min(tagDtos.length, count);
+
+            List<TagDto> results = new ArrayList<>(resultsCount);
+            for (int i = 0; i < resultsCount; ++i) {
+                results.add(tagDtos[reversed ? tagDtos.length - 1 - i : i]);
+            }
+
+            return results;
+        }
+
+        public long getVersion() {
+            return this.version;
+        }
+
+        public TagDto getTag(String tag) {
+            return this.tagsByName.get(tag);
+        }
+
+        public boolean containsTag(String tag) {
+            return this.tagsByName.containsKey(tag);
+        }
+
+        public List<TagDto> getTagsByName(boolean reversed, long count) {
+            return TagCache.Snapshot.takeFirst(this.tagsSortedByName, reversed, count);
+        }
+
+        public List<TagDto> getTagsByDateModified(boolean newestFirst, long count) {
+            return TagCache.Snapshot.takeFirst(this.tagsSortedByDateModified, newestFirst, count);
+        }
+
+        public List<TagDto> getRandomTags(long count) {
+            List<TagDto> tagDtos = new ArrayList<>(Arrays.asList(this.tagsSortedByName));
+            Collections.shuffle(tagDtos, ThreadLocalRandom.current());
+            return tagDtos.subList(0, (int)Math.min(tagDtos.size(), count));
+        }
+    }
+}
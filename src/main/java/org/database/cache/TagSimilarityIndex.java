@@ -0,0 +1,119 @@
+package org.database.cache;
+
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import org.database.dto.TagDto;
+import org.hibernate.SharedSessionContract;
+import org.utility.EditDistance;
+
+import java.util.*;
+
+public class TagSimilarityIndex {
+    // tags are split by length, only lengths that can be within the distance threshold are visited
+    private final Map<Integer, TagSimilarityIndex.Node> treesByLength;
+    private final Set<Long> idsTags;
+    private boolean loaded;
+
+    public TagSimilarityIndex() {
+        this.treesByLength = new HashMap<>();
+        this.idsTags = new HashSet<>();
+        this.loaded = false;
+    }
+
+    private static int getDistance(String first, String second) {
+        return EditDistance.distance(first, second);
+    }
+
+    public static int getMaxDistance(int firstLength, int secondLength, double maxNormalizedDistance) {
+        // small tolerance keeps boundary cases which are then verified by the exact normalized distance
+        return (int)Math.floor(maxNormalizedDistance * Math.max(firstLength, secondLength) + 1e-9);
+    }
+
+    public synchronized boolean isLoaded() {
+        return this.loaded;
+    }
+
+    public synchronized void markLoaded() {
+        this.loaded = true;
+    }
+
+    public synchronized void add(TagDto tagDto) {
+        if (!this.idsTags.add(tagDto.getIdTag())) {
+            return;
+        }
+
+        TagSimilarityIndex.Node root = this.treesByLength.get(tagDto.getTag().length());
+        if (root == null) {
+            this.treesByLength.put(tagDto.getTag().length(), new TagSimilarityIndex.Node(tagDto));
+            return;
+        }
+
+        TagSimilarityIndex.Node node = root;
+        while (true) {
+            int distance = TagSimilarityIndex.getDistance(tagDto.getTag(), node.tagDto.getTag());
+            TagSimilarityIndex.Node child = node.children.get(distance);
+            if (child == null) {
+                node.children.put(distance, new TagSimilarityIndex.Node(tagDto));
+                return;
+            }
+
+            node = child;
+        }
+    }
+
+    public void addOnCommit(TagDto tagDto, SharedSessionContract session) {
+        // tags persisted by a transaction that is later rolled back must not be reported as similar
+        session.getTransaction().registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {}
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    TagSimilarityIndex.this.add(tagDto);
+                }
+            }
+        });
+    }
+
+    public synchronized List<TagDto> findCandidates(String tag, double maxNormalizedDistance) {
+        List<TagDto> candidates = new ArrayList<>();
+
+        for (Map.Entry<Integer, TagSimilarityIndex.Node> tree : this.treesByLength.entrySet()) {
+            // edit distance is at least the difference of lengths
+            int maxDistance = TagSimilarityIndex.getMaxDistance(tag.length(), tree.getKey(), maxNormalizedDistance);
+            if (Math.abs(tag.length() - tree.getKey()) > maxDistance) {
+                continue;
+            }
+
+            Deque<TagSimilarityIndex.Node> nodesToVisit = new ArrayDeque<>();
+            nodesToVisit.push(tree.getValue());
+            while (!nodesToVisit.isEmpty()) {
+                TagSimilarityIndex.Node node = nodesToVisit.pop();
+                int distance = TagSimilarityIndex.getDistance(tag, node.tagDto.getTag());
+                if (distance <= maxDistance) {
+                    candidates.add(node.tagDto);
+                }
+
+                // triangle inequality, only subtrees whose edge distance is close enough can contain matches
+                node.children.forEach((childDistance, child) -> {
+                    if (Math.abs(childDistance - distance) <= maxDistance) {
+                        nodesToVisit.push(child);
+                    }
+                });
+            }
+        }
+
+        return candidates;
+    }
+
+    private static class Node {
+        private final TagDto tagDto;
+        private final Map<Integer, TagSimilarityIndex.Node> children;
+
+        public Node(TagDto tagDto) {
+            this.tagDto = tagDto;
+            this.children = new HashMap<>();
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.database.dto;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import org.database.QueryCatalog;
+import org.hibernate.SharedSessionContract;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+@Entity
+@Table(name = ChannelWatermarkDto.CHANNEL_WATERMARK_TABLE_NAME)
+public class ChannelWatermarkDto {
+    public static final String CHANNEL_WATERMARK_TABLE_NAME = "channel_watermark";
+
+    public static final String SNOWFLAKE_CHANNEL_COLUMN_NAME = "snowflake_channel";
+    public static final String SNOWFLAKE_GUILD_COLUMN_NAME = "snowflake_guild";
+    public static final String SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME = "snowflake_last_message";
+    public static final String DATE_MODIFIED_COLUMN_NAME = "date_modified";
+
+    private static final QueryCatalog.CatalogQuery WATERMARK_BY_CHANNEL_QUERY;
+    private static final QueryCatalog.CatalogQuery WATERMARKED_CHANNELS_QUERY;
+    private static final QueryCatalog.CatalogQuery ADVANCE_WATERMARK_QUERY;
+    private static final QueryCatalog.CatalogQuery DELETE_WATERMARK_QUERY;
+
+    static {
+        WATERMARK_BY_CHANNEL_QUERY = QueryCatalog.define("channelWatermark.byChannel", "SELECT * FROM "
+                + ChannelWatermarkDto.CHANNEL_WATERMARK_TABLE_NAME + " WHERE "
+                + ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " = :p_snowflakeChannel");
+        WATERMARKED_CHANNELS_QUERY = QueryCatalog.define("channelWatermark.watermarkedChannels", "SELECT "
+                + ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " FROM " + ChannelWatermarkDto.CHANNEL_WATERMARK_TABLE_NAME + " WHERE "
+                + ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " IN (:p_snowflakesChannels)");
+        // watermark never moves backwards, pages of one channel are always processed in order
+        ADVANCE_WATERMARK_QUERY = QueryCatalog.define("channelWatermark.advance", "INSERT INTO "
+                + ChannelWatermarkDto.CHANNEL_WATERMARK_TABLE_NAME + " ("
+                + ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + ", " + ChannelWatermarkDto.SNOWFLAKE_GUILD_COLUMN_NAME + ", "
+                + ChannelWatermarkDto.SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME + ") VALUES (:p_snowflakeChannel, :p_snowflakeGuild, :p_snowflakeLastMessage) "
+                + "AS new ON DUPLICATE KEY UPDATE " + ChannelWatermarkDto.SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME + " = GREATEST("
+                + ChannelWatermarkDto.SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME + ", new." + ChannelWatermarkDto.SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME + ")");
+        DELETE_WATERMARK_QUERY = QueryCatalog.define("channelWatermark.delete", "DELETE FROM "
+                + ChannelWatermarkDto.CHANNEL_WATERMARK_TABLE_NAME + " WHERE "
+                + ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " = :p_snowflakeChannel");
+    }
+
+    @Id
+    @Column(name = ChannelWatermarkDto.SNOWFLAKE_CHANNEL_COLUMN_NAME, unique = true, nullable = false)
+    private long snowflakeChannel;
+
+    @Column(name = ChannelWatermarkDto.SNOWFLAKE_GUILD_COLUMN_NAME, nullable = false)
+    private long snowflakeGuild;
+
+    @Column(name = ChannelWatermarkDto.SNOWFLAKE_LAST_MESSAGE_COLUMN_NAME, nullable = false)
+    private long snowflakeLastMessage;
+
+    @Column(name = ChannelWatermarkDto.DATE_MODIFIED_COLUMN_NAME, nullable = false, insertable = false)
+    private LocalDateTime dateModified;
+
+    public ChannelWatermarkDto() {}
+
+    public static Long getLastIndexedMessage(long snowflakeChannel, SharedSessionContract session) {
+        ChannelWatermarkDto watermark = ChannelWatermarkDto.WATERMARK_BY_CHANNEL_QUERY.single(session, ChannelWatermarkDto.class, query -> query
+                .setParameter("p_snowflakeChannel", snowflakeChannel)
+        );
+        return watermark == null ? null : watermark.snowflakeLastMessage;
+    }
+
+    public static Set<Long> findWatermarkedChannels(Collection<Long> snowflakesChannels, SharedSessionContract session) {
+        if (snowflakesChannels.isEmpty()) {
+            return Set.of();
+        }
+
+        return new HashSet<>(ChannelWatermarkDto.WATERMARKED_CHANNELS_QUERY.list(session, Long.class, query -> query
+                .setParameterList("p_snowflakesChannels", snowflakesChannels)
+        ));
+    }
+
+    public static void advanceWatermark(
+            long snowflakeChannel, long snowflakeGuild, long snowflakeLastMessage, SharedSessionContract session
+    ) {
+        ChannelWatermarkDto.ADVANCE_WATERMARK_QUERY.update(session, query -> query
+                .setParameter("p_snowflakeChannel", snowflakeChannel)
+                .setParameter("p_snowflakeGuild", snowflakeGuild)
+                .setParameter("p_snowflakeLastMessage", snowflakeLastMessage)
+        );
+    }
+
+    public static void deleteWatermark(long snowflakeChannel, SharedSessionContract session) {
+        ChannelWatermarkDto.DELETE_WATERMARK_QUERY.update(session, query -> query
+                .setParameter("p_snowflakeChannel", snowflakeChannel)
+        );
+    }
+}
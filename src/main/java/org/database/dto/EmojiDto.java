@@ -1,6 +1,7 @@
 package org.database.dto;
 
 import jakarta.persistence.*;
+import org.database.QueryCatalog;
 import org.hibernate.Session;
 
 import java.util.List;
@@ -13,6 +14,13 @@ public class EmojiDto {
     public static final String ID_EMOJI_COLUMN_NAME = "id_emoji";
     public static final String EMOJI_COLUMN_NAME = "emoji";
 
+    private static final QueryCatalog.CatalogQuery EMOJIS_BY_EMOJI_QUERY;
+
+    static {
+        EMOJIS_BY_EMOJI_QUERY = QueryCatalog.define("emoji.byEmoji", "SELECT * FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
+                + EmojiDto.EMOJI_COLUMN_NAME + " = :p_emoji");
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = EmojiDto.ID_EMOJI_COLUMN_NAME, unique = true, nullable = false)
@@ -21,36 +29,16 @@ public class EmojiDto {
     @Column(name = EmojiDto.EMOJI_COLUMN_NAME, nullable = false)
     private String emoji;
 
+    public EmojiDto() {}
+
     public EmojiDto(String emoji) {
         this.emoji = emoji;
     }
 
-    public static boolean emojiExists(String emoji, Session session) {
-        String sql = "SELECT * FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
-                + EmojiDto.EMOJI_COLUMN_NAME + " = :p_emoji";
-
-        return !session.createNativeQuery(sql, EmojiDto.class)
-                .setParameter("p_emoji", emoji)
-                .getResultList()
-                .isEmpty();
-    }
-
-    public static EmojiDto getEmojiDtoByIdEmoji(long idEmoji, Session session) {
-        String sql = "SELECT * FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
-                + EmojiDto.ID_EMOJI_COLUMN_NAME + " = :p_idEmoji";
-
-        return session.createNativeQuery(sql, EmojiDto.class)
-                .setParameter("p_idEmoji", idEmoji)
-                .getSingleResultOrNull();
-    }
-
     public static List<EmojiDto> getEmojiDtosByEmoji(String emoji, Session session) {
-        String sql = "SELECT * FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
-                + EmojiDto.EMOJI_COLUMN_NAME + " = :p_emoji";
-
-        return session.createNativeQuery(sql, EmojiDto.class)
+        return EmojiDto.EMOJIS_BY_EMOJI_QUERY.list(session, EmojiDto.class, query -> query
                 .setParameter("p_emoji", emoji)
-                .getResultList();
+        );
     }
 
     public long getIdEmoji() {
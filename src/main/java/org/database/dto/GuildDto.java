@@ -1,8 +1,14 @@
 package org.database.dto;
 
 import jakarta.persistence.*;
+import org.Main;
+import org.database.QueryCatalog;
+import org.database.cache.MembershipCache;
 import org.hibernate.Session;
 
+import java.util.List;
+import java.util.function.UnaryOperator;
+
 @Entity
 @Table(name = GuildDto.GUILD_TABLE_NAME)
 public class GuildDto {
@@ -10,30 +16,49 @@ public class GuildDto {
 
     public static final String SNOWFLAKE_GUILD_COLUMN_NAME = "snowflake_guild";
 
+    private static final MembershipCache KNOWN_GUILDS;
+
+    private static final QueryCatalog.CatalogQuery INSERT_GUILD_QUERY;
+    private static final QueryCatalog.CatalogQuery ALL_GUILDS_QUERY;
+
+    static {
+        KNOWN_GUILDS = new MembershipCache(
+                Long.parseLong(Main.DOTENV.get("KNOWN_GUILDS_EXPECTED_INSERTIONS", "100000")),
+                Double.parseDouble(Main.DOTENV.get("KNOWN_GUILDS_FALSE_POSITIVE_PROBABILITY", "0.01")),
+                Integer.parseInt(Main.DOTENV.get("KNOWN_GUILDS_MAXIMUM_CACHED", "100000"))
+        );
+
+        INSERT_GUILD_QUERY = QueryCatalog.define("guild.insert", "INSERT IGNORE INTO " + GuildDto.GUILD_TABLE_NAME + " ("
+                + GuildDto.SNOWFLAKE_GUILD_COLUMN_NAME + ") VALUES (:p_snowflakeGuild)");
+        ALL_GUILDS_QUERY = QueryCatalog.define("guild.all", "SELECT " + GuildDto.SNOWFLAKE_GUILD_COLUMN_NAME + " FROM " + GuildDto.GUILD_TABLE_NAME);
+    }
+
     @Id
     @Column(name = GuildDto.SNOWFLAKE_GUILD_COLUMN_NAME, unique = true, nullable = false)
-    private String snowflakeGuild;
+    private long snowflakeGuild;
 
     public GuildDto() {}
 
-    public GuildDto(String snowflakeGuild) {
+    public GuildDto(long snowflakeGuild) {
         this.snowflakeGuild = snowflakeGuild;
     }
 
-    public static void refreshGuild(String snowflakeGuild, Session session) {
-        if (!GuildDto.guildExists(snowflakeGuild, session)) {
-            GuildDto newGuild = new GuildDto(snowflakeGuild);
-            session.persist(newGuild);
+    public static void refreshGuild(long snowflakeGuild, Session session) {
+        if (GuildDto.KNOWN_GUILDS.isKnown(snowflakeGuild)) {
+            return;
         }
+
+        GuildDto.INSERT_GUILD_QUERY.update(session, query -> query
+                .setParameter("p_snowflakeGuild", snowflakeGuild)
+        );
+        GuildDto.KNOWN_GUILDS.addOnCommit(List.of(snowflakeGuild), session);
     }
 
-    public static boolean guildExists(String snowflakeGuild, Session session) {
-        String sql = "SELECT * FROM " + GuildDto.GUILD_TABLE_NAME + " WHERE "
-                + GuildDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild";
+    public static boolean isKnownGuild(long snowflakeGuild) {
+        return GuildDto.KNOWN_GUILDS.isKnown(snowflakeGuild);
+    }
 
-        return !session.createNativeQuery(sql, GuildDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .getResultList()
-                .isEmpty();
+    public static void loadKnownGuilds(Session session) {
+        GuildDto.ALL_GUILDS_QUERY.forEach(session, Long.class, UnaryOperator.identity(), GuildDto.KNOWN_GUILDS::add);
     }
 }
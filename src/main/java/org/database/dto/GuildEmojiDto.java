@@ -1,10 +1,9 @@
 package org.database.dto;
 
 import jakarta.persistence.*;
+import org.database.QueryCatalog;
 import org.hibernate.Session;
 
-import java.util.List;
-
 @Entity
 @Table(name = GuildEmojiDto.GUILD_EMOJI_TABLE_NAME)
 @IdClass(GuildEmojiDto.GuildEmojiDtoPK.class)
@@ -16,69 +15,56 @@ public class GuildEmojiDto {
     public static final String SNOWFLAKE_EMOJI_COLUMN_NAME = "snowflake_emoji";
     public static final String ANIMATED_COLUMN_NAME = "animated";
 
+    private static final QueryCatalog.CatalogQuery GUILD_EMOJI_BY_SNOWFLAKE_QUERY;
+
+    static {
+        GUILD_EMOJI_BY_SNOWFLAKE_QUERY = QueryCatalog.define("guildEmoji.bySnowflake", "SELECT * FROM " + GuildEmojiDto.GUILD_EMOJI_TABLE_NAME + " WHERE "
+                + GuildEmojiDto.SNOWFLAKE_EMOJI_COLUMN_NAME + " = :p_snowflakeEmoji");
+    }
+
     @Id
     @Column(name = GuildEmojiDto.ID_EMOJI_COLUMN_NAME, nullable = false)
     private long idEmoji;
 
     @Id
     @Column(name = GuildEmojiDto.SNOWFLAKE_GUILD_COLUMN_NAME, nullable = false)
-    private String snowflakeGuild;
+    private long snowflakeGuild;
 
     @Column(name = GuildEmojiDto.SNOWFLAKE_EMOJI_COLUMN_NAME, nullable = false)
-    private String snowflakeEmoji;
+    private long snowflakeEmoji;
 
     @Column(name = GuildEmojiDto.ANIMATED_COLUMN_NAME, nullable = false)
     private boolean animated;
 
-    public GuildEmojiDto(long idEmoji, String snowflakeGuild, String snowflakeEmoji, boolean animated) {
+    public GuildEmojiDto() {}
+
+    public GuildEmojiDto(long idEmoji, long snowflakeGuild, long snowflakeEmoji, boolean animated) {
         this.idEmoji = idEmoji;
         this.snowflakeGuild = snowflakeGuild;
         this.snowflakeEmoji = snowflakeEmoji;
         this.animated = animated;
     }
 
-    public static boolean guildEmojiExists(String emoji, String snowflakeGuild, Session session) {
-        List<Long> emojiDtosIds = EmojiDto.getEmojiDtosByEmoji(emoji, session).stream()
-                .map(EmojiDto::getIdEmoji)
-                .toList();
-        String sql = "SELECT * FROM " + GuildEmojiDto.GUILD_EMOJI_TABLE_NAME + " WHERE "
-                + GuildEmojiDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + GuildEmojiDto.ID_EMOJI_COLUMN_NAME + " IN :p_idsEmojis";
-
-        return !session.createNativeQuery(sql, GuildEmojiDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .setParameter("p_idsEmojis", emojiDtosIds)
-                .getResultList()
-                .isEmpty();
-    }
-
-    public static GuildEmojiDto getGuildEmojiDtoByEmoji(String emoji, String snowflakeGuild, Session session) {
-        List<Long> emojiDtosIds = EmojiDto.getEmojiDtosByEmoji(emoji, session).stream()
-                .map(EmojiDto::getIdEmoji)
-                .toList();
-        String sql = "SELECT * FROM " + GuildEmojiDto.GUILD_EMOJI_TABLE_NAME + " WHERE "
-                + GuildEmojiDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + GuildEmojiDto.ID_EMOJI_COLUMN_NAME + " IN :p_idsEmojis";
-
-        return session.createNativeQuery(sql, GuildEmojiDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .setParameter("p_idsEmojis", emojiDtosIds)
-                .getSingleResult();
+    public static Long getIdEmojiBySnowflakeEmoji(long snowflakeEmoji, Session session) {
+        GuildEmojiDto guildEmojiDto = GuildEmojiDto.GUILD_EMOJI_BY_SNOWFLAKE_QUERY.single(session, GuildEmojiDto.class, query -> query
+                .setParameter("p_snowflakeEmoji", snowflakeEmoji)
+        );
+        return guildEmojiDto == null ? null : guildEmojiDto.getIdEmoji();
     }
 
     public long getIdEmoji() {
         return this.idEmoji;
     }
 
-    protected record GuildEmojiDtoPK(long idEmoji, String snowflakeGuild) {
+    protected record GuildEmojiDtoPK(long idEmoji, long snowflakeGuild) {
         @Override
         public boolean equals(Object other) {
             if (other == null) {
                 return false;
             }
 
-            if (other instanceof GuildEmojiDtoPK(long otherIdEmoji, String otherSnowflakeGuild)) {
-                return this.idEmoji == otherIdEmoji && this.snowflakeGuild.equals(otherSnowflakeGuild);
+            if (other instanceof GuildEmojiDtoPK(long otherIdEmoji, long otherSnowflakeGuild)) {
+                return this.idEmoji == otherIdEmoji && this.snowflakeGuild == otherSnowflakeGuild;
             }
 
             return false;
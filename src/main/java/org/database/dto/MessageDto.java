@@ -4,7 +4,15 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
-import org.hibernate.Session;
+import org.Main;
+import org.database.EmojiCollector;
+import org.database.QueryCatalog;
+import org.hibernate.SharedSessionContract;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
+
+import java.util.Collection;
+import java.util.List;
 
 @Entity
 @Table(name = MessageDto.MESSAGE_TABLE_NAME)
@@ -16,60 +24,122 @@ public class MessageDto {
     public static final String SNOWFLAKE_CHANNEL_COLUMN_NAME = "snowflake_channel";
     public static final String MESSAGE_COLUMN_NAME = "message";
 
+    private static final int PURGE_CHUNK_SIZE;
+
+    private static final QueryCatalog.CatalogQuery CHANNEL_MESSAGES_CHUNK_QUERY;
+    private static final QueryCatalog.CatalogQuery REACTION_EMOJIS_QUERY;
+    private static final QueryCatalog.CatalogQuery PURGE_REACTIONS_QUERY;
+    private static final QueryCatalog.CatalogQuery PURGE_MESSAGES_QUERY;
+
+    static {
+        PURGE_CHUNK_SIZE = Integer.parseInt(Main.DOTENV.get("PURGE_CHUNK_SIZE", "1000"));
+
+        CHANNEL_MESSAGES_CHUNK_QUERY = QueryCatalog.define("message.channelChunk", "SELECT " + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " FROM "
+                + MessageDto.MESSAGE_TABLE_NAME + " WHERE " + MessageDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " = :p_snowflakeChannel AND "
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " > :p_lastPurgedMessage ORDER BY "
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " LIMIT :p_chunkSize");
+        REACTION_EMOJIS_QUERY = QueryCatalog.define("message.reactionEmojis", "SELECT DISTINCT " + ReactionDto.ID_EMOJI_COLUMN_NAME + " FROM "
+                + ReactionDto.REACTION_TABLE_NAME + " WHERE " + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " IN (:p_snowflakesMessages)");
+        PURGE_REACTIONS_QUERY = QueryCatalog.define("message.purgeReactions", "DELETE FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE "
+                + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " IN (:p_snowflakesMessages)");
+        PURGE_MESSAGES_QUERY = QueryCatalog.define("message.purgeMessages", "DELETE FROM " + MessageDto.MESSAGE_TABLE_NAME + " WHERE "
+                + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " IN (:p_snowflakesMessages)");
+    }
+
     @Id
     @Column(name = MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME, unique = true, nullable = false)
-    private String snowflakeMessage;
+    private long snowflakeMessage;
 
     @Column(name = MessageDto.SNOWFLAKE_MESSAGE_AUTHOR_COLUMN_NAME, nullable = false)
-    private String snowflakeMessageAuthor;
+    private long snowflakeMessageAuthor;
 
     @Column(name = MessageDto.SNOWFLAKE_CHANNEL_COLUMN_NAME, nullable = false)
-    private String snowflakeChannel;
+    private long snowflakeChannel;
 
     @Column(name = MessageDto.MESSAGE_COLUMN_NAME, nullable = false)
     private String message;
 
-    public MessageDto(String snowflakeMessage, String snowflakeMessageAuthor, String snowflakeChannel, String message) {
+    public MessageDto(long snowflakeMessage, long snowflakeMessageAuthor, long snowflakeChannel, String message) {
         this.snowflakeMessage = snowflakeMessage;
         this.snowflakeMessageAuthor = snowflakeMessageAuthor;
         this.snowflakeChannel = snowflakeChannel;
         this.message = message;
     }
 
-    public static void purgeChannelData(String snowflakeChannel, String snowflakeGuild, Session session) {
-        MessageDto.purgeReactions(snowflakeChannel, session);
-        MessageDto.purgeEmojis(snowflakeGuild, session);
+    public static void purgeChannelData(long snowflakeChannel) {
+        StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+
+        try {
+            Transaction transaction = session.beginTransaction();
+            ChannelWatermarkDto.deleteWatermark(snowflakeChannel, session);
+            transaction.commit();
+
+            // messages are deleted in key ranges, each chunk holds its locks only for a short transaction
+            long lastPurgedMessage = 0;
+            while (true) {
+                transaction = session.beginTransaction();
+                try {
+                    List<Long> snowflakesMessages = MessageDto.getChannelMessagesChunk(snowflakeChannel, lastPurgedMessage, session);
+                    if (snowflakesMessages.isEmpty()) {
+                        transaction.commit();
+                        return;
+                    }
 
-        String sql = "DELETE FROM " + MessageDto.MESSAGE_TABLE_NAME + " WHERE "
-                + MessageDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " = :p_snowflakeChannel";
-        session.createNativeQuery(sql, MessageDto.class)
+                    EmojiCollector.addCandidatesOnCommit(MessageDto.getReactionEmojis(snowflakesMessages, session), session);
+                    MessageDto.purgeReactions(snowflakesMessages, session);
+                    MessageDto.purgeMessages(snowflakesMessages, session);
+                    transaction.commit();
+
+                    lastPurgedMessage = snowflakesMessages.getLast();
+                } catch (RuntimeException exception) {
+                    transaction.rollback();
+                    throw exception;
+                }
+            }
+        } finally {
+            session.close();
+        }
+    }
+
+    private static List<Long> getChannelMessagesChunk(long snowflakeChannel, long lastPurgedMessage, SharedSessionContract session) {
+        return MessageDto.CHANNEL_MESSAGES_CHUNK_QUERY.list(session, Long.class, query -> query
                 .setParameter("p_snowflakeChannel", snowflakeChannel)
-                .executeUpdate();
+                .setParameter("p_lastPurgedMessage", lastPurgedMessage)
+                .setParameter("p_chunkSize", MessageDto.PURGE_CHUNK_SIZE)
+        );
     }
 
-    private static void purgeReactions(String snowflakeChannel, Session session) {
-        String innerSql = "SELECT " + MessageDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " FROM " + MessageDto.MESSAGE_TABLE_NAME
-                + " WHERE " + MessageDto.SNOWFLAKE_CHANNEL_COLUMN_NAME + " = :p_snowflakeChannel";
-        String sql = "DELETE FROM " + ReactionDto.REACTION_TABLE_NAME + " WHERE "
-                + ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME + " IN (" + innerSql + ")";
+    public static List<Long> getReactionEmojis(Collection<Long> snowflakesMessages, SharedSessionContract session) {
+        return MessageDto.REACTION_EMOJIS_QUERY.list(session, Long.class, query -> query
+                .setParameterList("p_snowflakesMessages", snowflakesMessages)
+        );
+    }
 
-        session.createNativeQuery(sql, ReactionDto.class)
-                .setParameter("p_snowflakeChannel", snowflakeChannel)
-                .executeUpdate();
+    private static void purgeReactions(List<Long> snowflakesMessages, SharedSessionContract session) {
+        MessageDto.PURGE_REACTIONS_QUERY.update(session, query -> query
+                .setParameterList("p_snowflakesMessages", snowflakesMessages)
+        );
     }
 
-    private static void purgeEmojis(String snowflakeGuild, Session session) {
-        String innerSql = "SELECT " + ReactionDto.ID_EMOJI_COLUMN_NAME + " FROM " + ReactionDto.REACTION_TABLE_NAME;
+    private static void purgeMessages(List<Long> snowflakesMessages, SharedSessionContract session) {
+        MessageDto.PURGE_MESSAGES_QUERY.update(session, query -> query
+                .setParameterList("p_snowflakesMessages", snowflakesMessages)
+        );
+    }
 
-        String guildEmojiSql = "DELETE FROM " + GuildEmojiDto.GUILD_EMOJI_TABLE_NAME + " WHERE "
-                + GuildEmojiDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + GuildEmojiDto.ID_EMOJI_COLUMN_NAME + " NOT IN (" + innerSql + ")";
-        String emojiSql = "DELETE FROM " + EmojiDto.EMOJI_TABLE_NAME + " WHERE "
-                + EmojiDto.ID_EMOJI_COLUMN_NAME + " NOT IN (" + innerSql + ")";
+    public long getSnowflakeMessage() {
+        return this.snowflakeMessage;
+    }
+
+    public long getSnowflakeMessageAuthor() {
+        return this.snowflakeMessageAuthor;
+    }
+
+    public long getSnowflakeChannel() {
+        return this.snowflakeChannel;
+    }
 
-        session.createNativeQuery(guildEmojiSql, GuildEmojiDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .executeUpdate();
-        session.createNativeQuery(emojiSql, EmojiDto.class).executeUpdate();
+    public String getMessage() {
+        return this.message;
     }
 }
@@ -1,26 +1,31 @@
 package org.database.dto;
 
-import com.dynatrace.hash4j.hashing.Hashing;
-import com.dynatrace.hash4j.similarity.ElementHashProvider;
-import com.dynatrace.hash4j.similarity.SimilarityHashPolicy;
-import com.dynatrace.hash4j.similarity.SimilarityHasher;
-import com.dynatrace.hash4j.similarity.SimilarityHashing;
 import jakarta.persistence.*;
 import jakarta.persistence.criteria.*;
+import org.Main;
 import org.database.DtoWithDistance;
 import org.database.Persistable;
+import org.database.QueryCatalog;
+import org.database.cache.QuoteIdDirectory;
+import org.database.cache.QuoteSearchIndex;
+import org.database.cache.QuoteSimilarityIndex;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.utility.Constants;
 import org.utility.Helper;
 import org.utility.ProcessingContext;
+import org.utility.QuoteFingerprinter;
 
+import java.nio.file.Paths;
 import java.security.MessageDigest;
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.function.ToLongFunction;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
 
 @Entity
 @Table(
@@ -42,6 +47,46 @@ public class QuoteDto implements Persistable {
     public static final String DATE_MODIFIED_COLUMN_NAME = "date_modified";
 
     private static final Logger LOGGER = LoggerFactory.getLogger(QuoteDto.class);
+    private static final java.nio.file.Path SIGNATURE_STORE_PATH = Paths.get(Main.DOTENV.get("QUOTE_SIGNATURE_STORE_PATH", "signatures"));
+    private static final Map<Long, QuoteSimilarityIndex> SIMILARITY_INDEXES = new ConcurrentHashMap<>();
+    private static final Map<Long, QuoteSearchIndex> SEARCH_INDEXES = new ConcurrentHashMap<>();
+    private static final Map<Long, QuoteIdDirectory> ID_DIRECTORIES = new ConcurrentHashMap<>();
+
+    private static final QueryCatalog.CatalogQuery QUOTE_BY_HASH_QUERY;
+    private static final QueryCatalog.CatalogQuery GUILD_QUOTES_BY_IDS_QUERY;
+    private static final QueryCatalog.CatalogQuery QUOTES_BY_IDS_QUERY;
+    private static final QueryCatalog.CatalogQuery SEARCH_INDEX_ROWS_QUERY;
+    private static final QueryCatalog.CatalogQuery GUILD_QUOTE_IDS_QUERY;
+    private static final QueryCatalog.CatalogQuery GUILD_QUOTE_TAGS_QUERY;
+    private static final QueryCatalog.CatalogQuery GUILD_QUOTES_STATISTICS_QUERY;
+    private static final QueryCatalog.CatalogQuery QUOTE_TAGS_QUERY;
+
+    static {
+        QUOTE_BY_HASH_QUERY = QueryCatalog.define("quote.byHash", "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
+                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
+                + QuoteDto.QUOTE_HASH_COLUMN_NAME + " = :p_quoteHash");
+        GUILD_QUOTES_BY_IDS_QUERY = QueryCatalog.define("quote.byGuildAndIds", "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
+                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
+                + QuoteDto.ID_QUOTE_COLUMN_NAME + " IN :p_idsQuotes");
+        QUOTES_BY_IDS_QUERY = QueryCatalog.define("quote.byIds", "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
+                + QuoteDto.ID_QUOTE_COLUMN_NAME + " IN :p_idsQuotes");
+        // only the indexed columns are read, quotes are not loaded as managed entities
+        SEARCH_INDEX_ROWS_QUERY = QueryCatalog.define("quote.searchIndexRows", "SELECT " + QuoteDto.ID_QUOTE_COLUMN_NAME + ", "
+                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + ", " + QuoteDto.QUOTE_COLUMN_NAME + " FROM " + QuoteDto.QUOTE_TABLE_NAME
+                + " ORDER BY " + QuoteDto.ID_QUOTE_COLUMN_NAME);
+        GUILD_QUOTE_IDS_QUERY = QueryCatalog.define("quote.guildIds", "SELECT " + QuoteDto.ID_QUOTE_COLUMN_NAME + " FROM "
+                + QuoteDto.QUOTE_TABLE_NAME + " WHERE " + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild");
+        GUILD_QUOTE_TAGS_QUERY = QueryCatalog.define("quote.guildQuoteTags", "SELECT qt." + QuoteTagDto.ID_TAG_COLUMN_NAME + ", qt."
+                + QuoteTagDto.ID_QUOTE_COLUMN_NAME + " FROM " + QuoteTagDto.QUOTE_TAG_TABLE_NAME + " qt JOIN " + QuoteDto.QUOTE_TABLE_NAME
+                + " q ON q." + QuoteDto.ID_QUOTE_COLUMN_NAME + " = qt." + QuoteTagDto.ID_QUOTE_COLUMN_NAME + " WHERE q."
+                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild");
+        GUILD_QUOTES_STATISTICS_QUERY = QueryCatalog.define("quote.guildStatistics", "SELECT COUNT(*), COALESCE(MAX("
+                + QuoteDto.ID_QUOTE_COLUMN_NAME + "), 0) FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
+                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild");
+        QUOTE_TAGS_QUERY = QueryCatalog.define("quote.tags", "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
+                + TagDto.ID_TAG_COLUMN_NAME + " IN (SELECT " + QuoteTagDto.ID_TAG_COLUMN_NAME + " FROM "
+                + QuoteTagDto.QUOTE_TAG_TABLE_NAME + " WHERE " + QuoteTagDto.ID_QUOTE_COLUMN_NAME + " = :p_idQuote)");
+    }
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -49,10 +94,10 @@ public class QuoteDto implements Persistable {
     private long idQuote;
 
     @Column(name = QuoteDto.SNOWFLAKE_QUOTE_AUTHOR_COLUMN_NAME, nullable = false)
-    private String snowflakeQuoteAuthor;
+    private long snowflakeQuoteAuthor;
 
     @Column(name = QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME, nullable = false)
-    private String snowflakeGuild;
+    private long snowflakeGuild;
 
     @Column(name = QuoteDto.QUOTE_COLUMN_NAME, nullable = false)
     private String quote;
@@ -74,16 +119,16 @@ public class QuoteDto implements Persistable {
 
     public QuoteDto() {}
 
-    public QuoteDto(String snowflakeQuoteAuthor, String snowflakeGuild, String quote, List<TagDto> tagDtos) {
+    public QuoteDto(long snowflakeQuoteAuthor, long snowflakeGuild, String quote, List<TagDto> tagDtos) {
         this.snowflakeQuoteAuthor = snowflakeQuoteAuthor;
         this.snowflakeGuild = snowflakeGuild;
         this.quote = quote;
-        this.quoteSimhash = QuoteDto.generateSimhash(quote);
+        this.quoteSimhash = QuoteFingerprinter.computeSignature(quote);
 
         this.tagDtos = tagDtos;
     }
 
-    public static boolean quoteExists(String newQuote, String snowflakeGuild, Session session) {
+    public static boolean quoteExists(String newQuote, long snowflakeGuild, Session session) {
         MessageDigest messageDigest;
         try {
             messageDigest = MessageDigest.getInstance("SHA-256");
@@ -94,43 +139,145 @@ public class QuoteDto implements Persistable {
 
         byte[] newQuoteHash = messageDigest.digest(newQuote.getBytes());
 
-        String sql = "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
-                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + QuoteDto.QUOTE_HASH_COLUMN_NAME + " = :p_quoteHash";
-        return session.createNativeQuery(sql, QuoteDto.class)
+        return QuoteDto.QUOTE_BY_HASH_QUERY.single(session, QuoteDto.class, query -> query
                 .setParameter("p_snowflakeGuild", snowflakeGuild)
                 .setParameter("p_quoteHash", newQuoteHash)
-                .getSingleResultOrNull() != null;
+        ) != null;
     }
 
-    public static List<QuoteDto.QuoteDistance> findSimilarQuotes(String newQuote, String snowflakeGuild, Session session) {
-        byte[] newQuoteSimhash = QuoteDto.generateSimhash(newQuote);
-        List<QuoteDto.QuoteSimhashWrapper> existingSimhashes = QuoteDto.getExistingSimhashes(session);
-        Map<Long, Double> similarQuotesIds = new HashMap<>();
-
-        SimilarityHashPolicy policy = QuoteDto.generateHashPolicy();
-
-        for (QuoteDto.QuoteSimhashWrapper simhashWrapper : existingSimhashes) {
-            double distance = 1.0 - policy.getFractionOfEqualComponents(newQuoteSimhash, simhashWrapper.simhash());
-            if (distance <= Constants.SIMHASH_DISTANCE_WARNING_THRESHOLD) {
-                similarQuotesIds.put(simhashWrapper.idQuote(), distance);
-            }
+    public static List<QuoteDto.QuoteDistance> findSimilarQuotes(String newQuote, long snowflakeGuild, Session session) {
+        byte[] newQuoteSimhash = QuoteFingerprinter.computeSignature(newQuote);
+        Map<Long, Double> similarQuotesIds = QuoteDto.getSimilarityIndex(snowflakeGuild).findSimilar(
+                newQuoteSimhash, Constants.SIMHASH_DISTANCE_WARNING_THRESHOLD
+        );
+        if (similarQuotesIds.isEmpty()) {
+            return List.of();
         }
 
-        String sql = "SELECT * FROM " + QuoteDto.QUOTE_TABLE_NAME + " WHERE "
-                + QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + QuoteDto.ID_QUOTE_COLUMN_NAME + " IN :p_idsQuotes";
-        List<QuoteDto> quoteDtos = session.createNativeQuery(sql, QuoteDto.class)
+        List<QuoteDto> quoteDtos = QuoteDto.GUILD_QUOTES_BY_IDS_QUERY.list(session, QuoteDto.class, query -> query
                 .setParameter("p_snowflakeGuild", snowflakeGuild)
                 .setParameter("p_idsQuotes", similarQuotesIds.keySet().stream().toList())
-                .getResultList();
+        );
 
         return quoteDtos.stream()
                 .map(quote -> new QuoteDto.QuoteDistance(quote, similarQuotesIds.get(quote.getIdQuote())))
                 .toList();
     }
 
-    private static List<QuoteDto.QuoteSimhashWrapper> getExistingSimhashes(Session session) {
+    public static void loadSearchIndexes(Session session) {
+        QuoteDto.SEARCH_INDEX_ROWS_QUERY.forEach(session, Object[].class, UnaryOperator.identity(), row ->
+                QuoteDto.getSearchIndex(((Number)row[1]).longValue()).add(((Number)row[0]).longValue(), (String)row[2])
+        );
+    }
+
+    public static List<QuoteDto> searchQuotes(String query, long snowflakeGuild, long resultsCount, Session session) {
+        List<Long> idsQuotes = QuoteDto.getSearchIndex(snowflakeGuild).search(query, resultsCount);
+        if (idsQuotes.isEmpty()) {
+            return List.of();
+        }
+
+        // results are returned in the order of their relevance
+        return QuoteDto.findByIdsInOrder(idsQuotes, session);
+    }
+
+    public static List<QuoteDto> findRandomQuotes(
+            long snowflakeGuild, Collection<Long> idsTags, boolean matchAllTags, long resultsCount, Session session
+    ) {
+        QuoteIdDirectory idDirectory = QuoteDto.getIdDirectory(snowflakeGuild);
+        List<Long> idsQuotes = idsTags.isEmpty()
+                ? idDirectory.sampleQuotes(resultsCount)
+                : idDirectory.sampleQuotesWithTags(idsTags, matchAllTags, resultsCount);
+        if (idsQuotes.isEmpty()) {
+            return List.of();
+        }
+
+        return QuoteDto.findByIdsInOrder(idsQuotes, session);
+    }
+
+    public static List<Long> findIdsQuotesWithTags(long snowflakeGuild, Collection<Long> idsTags, boolean matchAllTags) {
+        return QuoteDto.getIdDirectory(snowflakeGuild).findQuotesWithTags(idsTags, matchAllTags);
+    }
+
+    private static List<QuoteDto> findByIdsInOrder(List<Long> idsQuotes, Session session) {
+        Map<Long, QuoteDto> quoteDtos = new HashMap<>();
+        QuoteDto.QUOTES_BY_IDS_QUERY.forEach(session, QuoteDto.class, query -> query
+                .setParameter("p_idsQuotes", idsQuotes), quoteDto -> quoteDtos.put(quoteDto.idQuote, quoteDto)
+        );
+
+        return idsQuotes.stream()
+                .map(quoteDtos::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    private static QuoteIdDirectory getOrCreateIdDirectory(long snowflakeGuild) {
+        return QuoteDto.ID_DIRECTORIES.computeIfAbsent(snowflakeGuild, _ -> new QuoteIdDirectory());
+    }
+
+    private static QuoteIdDirectory getIdDirectory(long snowflakeGuild) {
+        QuoteIdDirectory idDirectory = QuoteDto.getOrCreateIdDirectory(snowflakeGuild);
+        idDirectory.loadIfNeeded(() -> {
+            // directory is loaded in its own transaction, quotes committed after the command started must not be missed
+            StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+            try {
+                Transaction transaction = session.beginTransaction();
+                QuoteDto.GUILD_QUOTE_IDS_QUERY.forEach(session, Long.class, query -> query
+                        .setParameter("p_snowflakeGuild", snowflakeGuild), idDirectory::addQuote
+                );
+                QuoteDto.GUILD_QUOTE_TAGS_QUERY.forEach(session, Object[].class, query -> query
+                        .setParameter("p_snowflakeGuild", snowflakeGuild),
+                        row -> idDirectory.addQuoteTag(((Number)row[0]).longValue(), ((Number)row[1]).longValue())
+                );
+                transaction.commit();
+            } finally {
+                session.close();
+            }
+        });
+
+        return idDirectory;
+    }
+
+    private static QuoteSearchIndex getSearchIndex(long snowflakeGuild) {
+        return QuoteDto.SEARCH_INDEXES.computeIfAbsent(snowflakeGuild, _ -> new QuoteSearchIndex());
+    }
+
+    private static QuoteSimilarityIndex getOrCreateSimilarityIndex(long snowflakeGuild) {
+        return QuoteDto.SIMILARITY_INDEXES.computeIfAbsent(snowflakeGuild, _ -> new QuoteSimilarityIndex(
+                QuoteDto.SIGNATURE_STORE_PATH.resolve("quote-signatures-" + snowflakeGuild + ".bin")
+        ));
+    }
+
+    private static QuoteSimilarityIndex getSimilarityIndex(long snowflakeGuild) {
+        QuoteSimilarityIndex similarityIndex = QuoteDto.getOrCreateSimilarityIndex(snowflakeGuild);
+        similarityIndex.loadIfNeeded(() -> {
+            // index is loaded in its own transaction, a rebuild from an older view would drop quotes committed since
+            StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+            try {
+                Transaction transaction = session.beginTransaction();
+                Object[] quotesStatistics = QuoteDto.GUILD_QUOTES_STATISTICS_QUERY.single(session, Object[].class, query -> query
+                        .setParameter("p_snowflakeGuild", snowflakeGuild)
+                );
+
+                // signature file left by a previous run is reused unless quotes were added without it
+                long quotesCount = ((Number)quotesStatistics[0]).longValue();
+                long maxIdQuote = ((Number)quotesStatistics[1]).longValue();
+                if (!similarityIndex.isSignatureStoreUpToDate(quotesCount, maxIdQuote)) {
+                    Map<Long, byte[]> signatures = new LinkedHashMap<>();
+                    QuoteDto.getGuildSimhashes(snowflakeGuild, session).forEach(simhashWrapper ->
+                            signatures.put(simhashWrapper.idQuote(), simhashWrapper.simhash())
+                    );
+                    similarityIndex.rebuildSignatureStore(signatures);
+                }
+                transaction.commit();
+            } finally {
+                session.close();
+            }
+        });
+
+        return similarityIndex;
+    }
+
+    private static List<QuoteDto.QuoteSimhashWrapper> getGuildSimhashes(long snowflakeGuild, StatelessSession session) {
         CriteriaBuilder builder = session.getCriteriaBuilder();
         CriteriaQuery<QuoteDto.QuoteSimhashWrapper> criteria = builder.createQuery(QuoteDto.QuoteSimhashWrapper.class);
         Root<QuoteDto> root = criteria.from(QuoteDto.class);
@@ -139,29 +286,22 @@ public class QuoteDto implements Persistable {
         Path<byte[]> quoteSimhashPath = root.get(Helper.snakeCaseToCamelCase(QuoteDto.QUOTE_SIMHASH_COLUMN_NAME));
         CompoundSelection<QuoteDto.QuoteSimhashWrapper> selection = builder.construct(QuoteDto.QuoteSimhashWrapper.class, idQuotePath, quoteSimhashPath);
 
-        criteria.select(selection);
+        Path<Long> snowflakeGuildPath = root.get(Helper.snakeCaseToCamelCase(QuoteDto.SNOWFLAKE_GUILD_COLUMN_NAME));
+        criteria.select(selection).where(builder.equal(snowflakeGuildPath, snowflakeGuild));
         return session.createQuery(criteria).getResultList();
     }
 
-    private static byte[] generateSimhash(String value) {
-        ToLongFunction<String> hashFunction = s -> Hashing.komihash5_0().hashCharsToLong(s);
-        SimilarityHashPolicy policy = QuoteDto.generateHashPolicy();
-        SimilarityHasher hasher = policy.createHasher();
-
-        List<String> tokens = Helper.normalizeAndTokenizeString(value);
-        return hasher.compute(ElementHashProvider.ofCollection(tokens, hashFunction));
-    }
-
-    private static SimilarityHashPolicy generateHashPolicy() {
-        return SimilarityHashing.superMinHash(1024, 1);
-    }
-
     @Override
     public void persist(ProcessingContext processingContext, Session session) {
         assert !this.tagDtos.isEmpty();
 
         session.persist(this);
+        QuoteDto.getOrCreateSimilarityIndex(this.snowflakeGuild).addOnCommit(this.idQuote, this.quoteSimhash, session);
+        QuoteDto.getSearchIndex(this.snowflakeGuild).addOnCommit(this.idQuote, this.quote, session);
         this.tagDtos.forEach(tagDto -> session.persist(new QuoteTagDto(tagDto.getIdTag(), this.idQuote)));
+        QuoteDto.getOrCreateIdDirectory(this.snowflakeGuild).addOnCommit(
+                this.idQuote, this.tagDtos.stream().map(TagDto::getIdTag).toList(), session
+        );
 
         String stringifiedTags = Helper.stringifyCollection(this.tagDtos, TagDto::getTag, true);
         String tagsMessage = "with " + (this.tagDtos.size() > 1 ? "tags " : "tag ") + stringifiedTags;
@@ -183,14 +323,9 @@ public class QuoteDto implements Persistable {
     public void loadTagDtos(Session session) {
         assert this.tagDtos == null;
 
-        String innerSql = "SELECT " + QuoteTagDto.ID_TAG_COLUMN_NAME + " FROM "
-                + QuoteTagDto.QUOTE_TAG_TABLE_NAME + " WHERE  " + QuoteTagDto.ID_QUOTE_COLUMN_NAME
-                + " = :p_idQuote";
-        String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                + TagDto.ID_TAG_COLUMN_NAME + " IN (" + innerSql + ")";
-        this.tagDtos = session.createNativeQuery(sql, TagDto.class)
+        this.tagDtos = QuoteDto.QUOTE_TAGS_QUERY.list(session, TagDto.class, query -> query
                 .setParameter("p_idQuote", this.idQuote)
-                .getResultList();
+        );
     }
 
     public long getIdQuote() {
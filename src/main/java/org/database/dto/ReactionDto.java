@@ -14,31 +14,43 @@ public class ReactionDto {
 
     @Id
     @Column(name = ReactionDto.SNOWFLAKE_MESSAGE_COLUMN_NAME, nullable = false)
-    private String snowflakeMessage;
+    private long snowflakeMessage;
 
     @Id
     @Column(name = ReactionDto.SNOWFLAKE_REACTION_AUTHOR_COLUMN_NAME, nullable = false)
-    private String snowflakeReactionAuthor;
+    private long snowflakeReactionAuthor;
 
     @Id
     @Column(name = ReactionDto.ID_EMOJI_COLUMN_NAME, nullable = false)
     private long idEmoji;
 
-    public ReactionDto(String snowflakeMessage, String snowflakeReactionAuthor, long idEmoji) {
+    public ReactionDto(long snowflakeMessage, long snowflakeReactionAuthor, long idEmoji) {
         this.snowflakeMessage = snowflakeMessage;
         this.snowflakeReactionAuthor = snowflakeReactionAuthor;
         this.idEmoji = idEmoji;
     }
 
-    protected record ReactionDtoPK(String snowflakeMessage, String snowflakeReactionAuthor, long idEmoji) {
+    public long getSnowflakeMessage() {
+        return this.snowflakeMessage;
+    }
+
+    public long getSnowflakeReactionAuthor() {
+        return this.snowflakeReactionAuthor;
+    }
+
+    public long getIdEmoji() {
+        return this.idEmoji;
+    }
+
+    protected record ReactionDtoPK(long snowflakeMessage, long snowflakeReactionAuthor, long idEmoji) {
         @Override
         public boolean equals(Object other) {
             if (other == null) {
                 return false;
             }
 
-            if (other instanceof ReactionDtoPK(String otherSnowflakeMessage, String otherSnowflakeAuthor, long otherIdEmoji)) {
-                return this.snowflakeMessage.equals(otherSnowflakeMessage) && this.snowflakeReactionAuthor.equals(otherSnowflakeAuthor)
+            if (other instanceof ReactionDtoPK(long otherSnowflakeMessage, long otherSnowflakeAuthor, long otherIdEmoji)) {
+                return this.snowflakeMessage == otherSnowflakeMessage && this.snowflakeReactionAuthor == otherSnowflakeAuthor
                         && this.idEmoji == otherIdEmoji;
             }
 
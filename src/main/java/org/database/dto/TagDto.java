@@ -1,19 +1,23 @@
 package org.database.dto;
 
-import info.debatty.java.stringsimilarity.NormalizedLevenshtein;
 import jakarta.persistence.*;
+import org.Main;
 import org.database.DtoWithDistance;
 import org.database.Persistable;
+import org.database.QueryCatalog;
+import org.database.cache.TagCache;
+import org.database.cache.TagSimilarityIndex;
 import org.hibernate.Session;
+import org.hibernate.StatelessSession;
+import org.hibernate.Transaction;
 import org.utility.Constants;
+import org.utility.EditDistance;
 import org.utility.ProcessingContext;
 
 import java.text.MessageFormat;
 import java.time.LocalDateTime;
-import java.util.Collection;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 @Entity
 @Table(
@@ -32,16 +36,26 @@ public class TagDto implements Persistable {
     public static final String DATE_CREATED_COLUMN_NAME = "date_created";
     public static final String DATE_MODIFIED_COLUMN_NAME = "date_modified";
 
+    private static final Map<Long, TagSimilarityIndex> SIMILARITY_INDEXES = new ConcurrentHashMap<>();
+    private static final Map<Long, TagCache> TAG_CACHES = new ConcurrentHashMap<>();
+
+    private static final QueryCatalog.CatalogQuery GUILD_TAGS_QUERY;
+
+    static {
+        GUILD_TAGS_QUERY = QueryCatalog.define("tag.byGuild", "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
+                + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild");
+    }
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     @Column(name = TagDto.ID_TAG_COLUMN_NAME, unique = true, nullable = false)
     private long idTag;
 
     @Column(name = TagDto.SNOWFLAKE_TAG_AUTHOR_COLUMN_NAME, nullable = false)
-    private String snowflakeTagAuthor;
+    private long snowflakeTagAuthor;
 
     @Column(name = TagDto.SNOWFLAKE_GUILD_COLUMN_NAME, nullable = false)
-    private String snowflakeGuild;
+    private long snowflakeGuild;
 
     @Column(name = TagDto.TAG_COLUMN_NAME, nullable = false)
     private String tag;
@@ -54,60 +68,97 @@ public class TagDto implements Persistable {
 
     public TagDto() {}
 
-    public TagDto(String snowflakeTagAuthor, String snowflakeGuild, String tag) {
+    public TagDto(long snowflakeTagAuthor, long snowflakeGuild, String tag) {
         this.snowflakeTagAuthor = snowflakeTagAuthor;
         this.snowflakeGuild = snowflakeGuild;
         this.tag = tag;
     }
 
-    public static boolean tagExists(String newTag, String snowflakeGuild, Session session) {
-        String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + TagDto.TAG_COLUMN_NAME + " = :p_tag LIMIT 1";
+    public static TagCache.Snapshot getTagSnapshot(long snowflakeGuild) {
+        return TagDto.getTagCache(snowflakeGuild).getSnapshot(() -> {
+            // snapshot is read in its own transaction, it must not reflect an older view of the calling command
+            StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+            try {
+                Transaction transaction = session.beginTransaction();
+                List<TagDto> tagDtos = TagDto.GUILD_TAGS_QUERY.list(session, TagDto.class, query -> query
+                        .setParameter("p_snowflakeGuild", snowflakeGuild)
+                );
+                transaction.commit();
+                return tagDtos;
+            } finally {
+                session.close();
+            }
+        });
+    }
+
+    private static TagCache getTagCache(long snowflakeGuild) {
+        return TagDto.TAG_CACHES.computeIfAbsent(snowflakeGuild, _ -> new TagCache());
+    }
 
-        return session.createNativeQuery(sql, TagDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .setParameter("p_tag", newTag)
-                .getSingleResultOrNull() != null;
+    public static boolean tagExists(String newTag, long snowflakeGuild) {
+        return TagDto.getTagSnapshot(snowflakeGuild).containsTag(newTag);
     }
 
-    public static List<String> filterOutExistingTags(Set<String> tagsToCheck, String snowflakeGuild, Session session) {
-        String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + TagDto.TAG_COLUMN_NAME + " IN :p_tagsToCheck";
-        List<TagDto> existingTags = session.createNativeQuery(sql, TagDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .setParameter("p_tagsToCheck", tagsToCheck)
-                .getResultList();
+    public static List<String> filterOutExistingTags(Set<String> tagsToCheck, long snowflakeGuild) {
+        TagCache.Snapshot tagSnapshot = TagDto.getTagSnapshot(snowflakeGuild);
 
         Set<String> nonExistentTags = new HashSet<>(tagsToCheck);
-        existingTags.forEach(existingTagDto -> nonExistentTags.remove(existingTagDto.getTag()));
+        nonExistentTags.removeIf(tagSnapshot::containsTag);
 
         return nonExistentTags.stream().toList();
     }
 
-    public static List<TagDto.TagDistance> findSimilarTags(String newTag, String snowflakeGuild, Session session) {
-        String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild";
-        List<TagDto> tags = session.createNativeQuery(sql, TagDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .getResultList();
-
-        NormalizedLevenshtein levenshtein = new NormalizedLevenshtein();
-        return tags.stream()
-                .map(tag -> new TagDto.TagDistance(tag, levenshtein.distance(tag.getTag(), newTag)))
-                .filter(pair -> pair.distance <= Constants.LEVENSHTEIN_DISTANCE_WARNING_THRESHOLD)
-                .toList();
+    private static TagSimilarityIndex getSimilarityIndex(long snowflakeGuild) {
+        TagSimilarityIndex similarityIndex = TagDto.SIMILARITY_INDEXES.computeIfAbsent(snowflakeGuild, _ -> new TagSimilarityIndex());
+
+        // noinspection SynchronizationOnLocalVariableOrMethodParameter
+        synchronized (similarityIndex) {
+            if (!similarityIndex.isLoaded()) {
+                // index is loaded in its own transaction, tags committed after the command started must not be missed
+                StatelessSession session = Main.DATABASE_SESSION_FACTORY.openStatelessSession();
+                try {
+                    Transaction transaction = session.beginTransaction();
+                    TagDto.GUILD_TAGS_QUERY.forEach(session, TagDto.class, query -> query
+                            .setParameter("p_snowflakeGuild", snowflakeGuild), similarityIndex::add
+                    );
+                    transaction.commit();
+                } finally {
+                    session.close();
+                }
+                similarityIndex.markLoaded();
+            }
+        }
+
+        return similarityIndex;
     }
 
-    public static List<TagDto> mapStringTagsToDtos(Collection<String> tags, String snowflakeGuild, Session session) {
-        String sql = "SELECT * FROM " + TagDto.TAG_TABLE_NAME + " WHERE "
-                + TagDto.SNOWFLAKE_GUILD_COLUMN_NAME + " = :p_snowflakeGuild AND "
-                + TagDto.TAG_COLUMN_NAME + " IN :p_tags";
-        List<TagDto> tagDtos = session.createNativeQuery(sql, TagDto.class)
-                .setParameter("p_snowflakeGuild", snowflakeGuild)
-                .setParameter("p_tags", tags)
-                .getResultList();
+    public static List<TagDto.TagDistance> findSimilarTags(String newTag, long snowflakeGuild) {
+        List<TagDto> tags = TagDto.getSimilarityIndex(snowflakeGuild)
+                .findCandidates(newTag, Constants.LEVENSHTEIN_DISTANCE_WARNING_THRESHOLD);
+
+        List<TagDto.TagDistance> similarTags = new ArrayList<>();
+        for (TagDto tag : tags) {
+            int maxLength = Math.max(tag.getTag().length(), newTag.length());
+            int maxDistance = TagSimilarityIndex.getMaxDistance(tag.getTag().length(), newTag.length(), Constants.LEVENSHTEIN_DISTANCE_WARNING_THRESHOLD);
+
+            // bounded computation stops as soon as the distance cannot get below the threshold
+            int distance = EditDistance.boundedDistance(tag.getTag(), newTag, maxDistance);
+            double normalizedDistance = maxLength == 0 ? 0 : (double)distance / maxLength;
+
+            if (distance <= maxDistance && normalizedDistance <= Constants.LEVENSHTEIN_DISTANCE_WARNING_THRESHOLD) {
+                similarTags.add(new TagDto.TagDistance(tag, normalizedDistance));
+            }
+        }
+
+        return similarTags;
+    }
+
+    public static List<TagDto> mapStringTagsToDtos(Collection<String> tags, long snowflakeGuild) {
+        TagCache.Snapshot tagSnapshot = TagDto.getTagSnapshot(snowflakeGuild);
+        List<TagDto> tagDtos = tags.stream()
+                .map(tagSnapshot::getTag)
+                .filter(Objects::nonNull)
+                .toList();
 
         assert tagDtos.size() == tags.size();
         return tagDtos;
@@ -116,6 +167,8 @@ public class TagDto implements Persistable {
     @Override
     public void persist(ProcessingContext processingContext, Session session) {
         session.persist(this);
+        TagDto.SIMILARITY_INDEXES.computeIfAbsent(this.snowflakeGuild, _ -> new TagSimilarityIndex()).addOnCommit(this, session);
+        TagDto.getTagCache(this.snowflakeGuild).invalidateOnCommit(session);
 
         processingContext.addMessages(
                 MessageFormat.format("New tag \"{0}\" was successfully created", this.tag),
@@ -139,6 +192,10 @@ public class TagDto implements Persistable {
         return this.tag;
     }
 
+    public LocalDateTime getDateModified() {
+        return this.dateModified;
+    }
+
     public record TagDistance(TagDto tagDto, double distance) implements DtoWithDistance {
         @Override
         public String getName() {
@@ -1,7 +1,15 @@
 package org.database.dto;
 
 import jakarta.persistence.*;
+import org.Main;
+import org.database.QueryCatalog;
+import org.database.cache.MembershipCache;
 import org.hibernate.Session;
+import org.hibernate.SharedSessionContract;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.UnaryOperator;
 
 @Entity
 @Table(name = UserDto.USER_TABLE_NAME)
@@ -11,34 +19,66 @@ public class UserDto {
     public static final String SNOWFLAKE_USER_COLUMN_NAME = "snowflake_user";
     public static final String BOT_COLUMN_NAME = "bot";
 
+    private static final MembershipCache KNOWN_USERS;
+
+    private static final QueryCatalog.CatalogQuery INSERT_USER_QUERY;
+    private static final QueryCatalog.CatalogQuery ALL_USERS_QUERY;
+
+    static {
+        KNOWN_USERS = new MembershipCache(
+                Long.parseLong(Main.DOTENV.get("KNOWN_USERS_EXPECTED_INSERTIONS", "2000000")),
+                Double.parseDouble(Main.DOTENV.get("KNOWN_USERS_FALSE_POSITIVE_PROBABILITY", "0.01")),
+                Integer.parseInt(Main.DOTENV.get("KNOWN_USERS_MAXIMUM_CACHED", "500000"))
+        );
+
+        INSERT_USER_QUERY = QueryCatalog.define("user.insert", "INSERT IGNORE INTO " + UserDto.USER_TABLE_NAME + " ("
+                + UserDto.SNOWFLAKE_USER_COLUMN_NAME + ", " + UserDto.BOT_COLUMN_NAME + ") VALUES (:p_snowflakeUser, :p_bot)");
+        ALL_USERS_QUERY = QueryCatalog.define("user.all", "SELECT " + UserDto.SNOWFLAKE_USER_COLUMN_NAME + " FROM " + UserDto.USER_TABLE_NAME);
+    }
+
     @Id
     @Column(name = UserDto.SNOWFLAKE_USER_COLUMN_NAME, unique = true, nullable = false)
-    private String snowflakeUser;
+    private long snowflakeUser;
 
     @Column(name = UserDto.BOT_COLUMN_NAME, nullable = false)
     public boolean bot;
 
     public UserDto() {}
 
-    public UserDto(String snowflakeUser, boolean bot) {
+    public UserDto(long snowflakeUser, boolean bot) {
         this.snowflakeUser = snowflakeUser;
         this.bot = bot;
     }
 
-    public static void refreshUser(String snowflakeUser, boolean isBot, Session session) {
-        if (!UserDto.userExists(snowflakeUser, session)) {
-            UserDto newUser = new UserDto(snowflakeUser, isBot);
-            session.persist(newUser);
+    public static void refreshUser(long snowflakeUser, boolean isBot, Session session) {
+        if (UserDto.KNOWN_USERS.isKnown(snowflakeUser)) {
+            return;
         }
+
+        UserDto.INSERT_USER_QUERY.update(session, query -> query
+                .setParameter("p_snowflakeUser", snowflakeUser)
+                .setParameter("p_bot", isBot)
+        );
+        UserDto.KNOWN_USERS.addOnCommit(List.of(snowflakeUser), session);
     }
 
-    public static boolean userExists(String snowflakeUser, Session session) {
-        String sql = "SELECT * FROM " + UserDto.USER_TABLE_NAME + " WHERE "
-                + UserDto.SNOWFLAKE_USER_COLUMN_NAME + " = :p_snowflakeUser";
+    public static void loadKnownUsers(Session session) {
+        UserDto.ALL_USERS_QUERY.forEach(session, Long.class, UnaryOperator.identity(), UserDto.KNOWN_USERS::add);
+    }
 
-        return !session.createNativeQuery(sql, UserDto.class)
-                .setParameter("p_snowflakeUser", snowflakeUser)
-                .getResultList()
-                .isEmpty();
+    public static boolean isKnownUser(long snowflakeUser) {
+        return UserDto.KNOWN_USERS.isKnown(snowflakeUser);
+    }
+
+    public static void markUsersKnownOnCommit(Collection<Long> snowflakesUsers, SharedSessionContract session) {
+        UserDto.KNOWN_USERS.addOnCommit(snowflakesUsers, session);
+    }
+
+    public long getSnowflakeUser() {
+        return this.snowflakeUser;
+    }
+
+    public boolean isBot() {
+        return this.bot;
     }
 }
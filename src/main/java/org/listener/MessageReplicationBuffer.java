@@ -0,0 +1,358 @@
+package org.listener;
+
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import org.Main;
+import org.database.BulkWriter;
+import org.database.DatabaseExecutor;
+import org.database.EmojiCollector;
+import org.database.dto.ChannelWatermarkDto;
+import org.database.dto.MessageDto;
+import org.database.dto.ReactionDto;
+import org.database.dto.UserDto;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.utility.Helper;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+public class MessageReplicationBuffer {
+    private static final Logger LOGGER;
+
+    private static final int FLUSH_SIZE;
+    private static final int FLUSH_INTERVAL_S;
+    private static final int MAXIMUM_BUFFERED_OPERATIONS;
+    private static final int SHUTDOWN_TIMEOUT_S;
+    private static final LongAdder DROPPED_OPERATIONS_COUNT;
+
+    static {
+        LOGGER = LoggerFactory.getLogger(MessageReplicationBuffer.class);
+
+        FLUSH_SIZE = Integer.parseInt(Main.DOTENV.get("REPLICATION_FLUSH_SIZE", "200"));
+        FLUSH_INTERVAL_S = Integer.parseInt(Main.DOTENV.get("REPLICATION_FLUSH_INTERVAL_S", "5"));
+        MAXIMUM_BUFFERED_OPERATIONS = MessageReplicationBuffer.FLUSH_SIZE * Integer.parseInt(Main.DOTENV.get("REPLICATION_MAXIMUM_BUFFERED_FLUSHES", "20"));
+        SHUTDOWN_TIMEOUT_S = 30;
+        DROPPED_OPERATIONS_COUNT = new LongAdder();
+    }
+
+    private final ScheduledExecutorService executorService;
+    private Map<Long, MessageReplicationBuffer.PendingMessage> pendingMessages;
+    private Map<MessageReplicationBuffer.ReactionKey, MessageReplicationBuffer.PendingReaction> pendingReactions;
+    private boolean flushRequested;
+
+    public MessageReplicationBuffer() {
+        this.pendingMessages = new LinkedHashMap<>();
+        this.pendingReactions = new LinkedHashMap<>();
+        this.flushRequested = false;
+
+        this.executorService = Executors.newSingleThreadScheduledExecutor();
+        this.executorService.scheduleWithFixedDelay(
+                this::flush, MessageReplicationBuffer.FLUSH_INTERVAL_S, MessageReplicationBuffer.FLUSH_INTERVAL_S, TimeUnit.SECONDS
+        );
+        // final flush runs before the database pools are shut down, its writes cannot be rejected
+        DatabaseExecutor.addShutdownTask(this::shutdown);
+    }
+
+    public static long getDroppedOperationsCount() {
+        return MessageReplicationBuffer.DROPPED_OPERATIONS_COUNT.sum();
+    }
+
+    public void insertMessage(MessageDto messageDto, boolean authorIsBot) {
+        this.addPendingMessage(new MessageReplicationBuffer.PendingMessage(
+                MessageReplicationBuffer.Operation.INSERT, messageDto, authorIsBot
+        ));
+    }
+
+    public void updateMessage(MessageDto messageDto, boolean authorIsBot) {
+        this.addPendingMessage(new MessageReplicationBuffer.PendingMessage(
+                MessageReplicationBuffer.Operation.UPDATE, messageDto, authorIsBot
+        ));
+    }
+
+    public void deleteMessage(long snowflakeMessage, long snowflakeChannel) {
+        this.addPendingMessage(new MessageReplicationBuffer.PendingMessage(
+                MessageReplicationBuffer.Operation.DELETE, new MessageDto(snowflakeMessage, 0, snowflakeChannel, null), false
+        ));
+    }
+
+    public void addReaction(
+            long snowflakeMessage, long snowflakeChannel, long snowflakeUser, boolean userIsBot, Emoji emoji, long snowflakeGuild
+    ) {
+        this.addPendingReaction(new MessageReplicationBuffer.PendingReaction(
+                MessageReplicationBuffer.Operation.INSERT, snowflakeMessage, snowflakeChannel, snowflakeUser, userIsBot, emoji, snowflakeGuild
+        ));
+    }
+
+    public void removeReaction(long snowflakeMessage, long snowflakeChannel, long snowflakeUser, Emoji emoji, long snowflakeGuild) {
+        this.addPendingReaction(new MessageReplicationBuffer.PendingReaction(
+                MessageReplicationBuffer.Operation.DELETE, snowflakeMessage, snowflakeChannel, snowflakeUser, false, emoji, snowflakeGuild
+        ));
+    }
+
+    private void addPendingMessage(MessageReplicationBuffer.PendingMessage pendingMessage) {
+        boolean flushNeeded;
+        synchronized (this) {
+            long snowflakeMessage = pendingMessage.messageDto().getSnowflakeMessage();
+            if (!this.pendingMessages.containsKey(snowflakeMessage) && this.isOverflowing()) {
+                MessageReplicationBuffer.DROPPED_OPERATIONS_COUNT.increment();
+                return;
+            }
+
+            // only the resulting state of a message is written, consecutive events are merged
+            this.pendingMessages.merge(snowflakeMessage, pendingMessage, MessageReplicationBuffer.PendingMessage::mergeWith);
+            flushNeeded = this.requestFlush();
+        }
+
+        if (flushNeeded) {
+            this.scheduleFlush();
+        }
+    }
+
+    private void addPendingReaction(MessageReplicationBuffer.PendingReaction pendingReaction) {
+        boolean flushNeeded;
+        synchronized (this) {
+            MessageReplicationBuffer.ReactionKey reactionKey = pendingReaction.key();
+            if (!this.pendingReactions.containsKey(reactionKey) && this.isOverflowing()) {
+                MessageReplicationBuffer.DROPPED_OPERATIONS_COUNT.increment();
+                return;
+            }
+
+            this.pendingReactions.put(reactionKey, pendingReaction);
+            flushNeeded = this.requestFlush();
+        }
+
+        if (flushNeeded) {
+            this.scheduleFlush();
+        }
+    }
+
+    private boolean isOverflowing() {
+        // events never wait on JDA threads, once the database falls this far behind new changes are dropped and counted
+        return this.pendingMessages.size() + this.pendingReactions.size() >= MessageReplicationBuffer.MAXIMUM_BUFFERED_OPERATIONS;
+    }
+
+    private boolean requestFlush() {
+        // one flush is requested per drain, events arriving while it is queued do not queue further flushes
+        if (this.flushRequested || this.pendingMessages.size() + this.pendingReactions.size() < MessageReplicationBuffer.FLUSH_SIZE) {
+            return false;
+        }
+
+        this.flushRequested = true;
+        return true;
+    }
+
+    private void scheduleFlush() {
+        try {
+            this.executorService.execute(this::flush);
+        } catch (RejectedExecutionException exception) {
+            // buffer is shutting down, the final flush writes the remaining changes
+        }
+    }
+
+    private void shutdown() {
+        this.executorService.shutdown();
+        try {
+            // flush already in progress finishes before the final one drains the rest
+            this.executorService.awaitTermination(MessageReplicationBuffer.SHUTDOWN_TIMEOUT_S, TimeUnit.SECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+        }
+
+        this.flush();
+    }
+
+    private synchronized Map.Entry<Collection<PendingMessage>, Collection<PendingReaction>> drain() {
+        Map.Entry<Collection<PendingMessage>, Collection<PendingReaction>> drained =
+                Map.entry(this.pendingMessages.values(), this.pendingReactions.values());
+
+        this.pendingMessages = new LinkedHashMap<>();
+        this.pendingReactions = new LinkedHashMap<>();
+        this.flushRequested = false;
+        return drained;
+    }
+
+    private synchronized void restore(Collection<PendingMessage> messages, Collection<PendingReaction> reactions) {
+        // restored changes are older than the buffered ones, newer events are merged on top of them
+        Map<Long, MessageReplicationBuffer.PendingMessage> restoredMessages = new LinkedHashMap<>();
+        messages.forEach(pendingMessage -> restoredMessages.put(pendingMessage.messageDto().getSnowflakeMessage(), pendingMessage));
+        this.pendingMessages.values().forEach(pendingMessage -> restoredMessages.merge(
+                pendingMessage.messageDto().getSnowflakeMessage(), pendingMessage, MessageReplicationBuffer.PendingMessage::mergeWith
+        ));
+
+        Map<MessageReplicationBuffer.ReactionKey, MessageReplicationBuffer.PendingReaction> restoredReactions = new LinkedHashMap<>();
+        reactions.forEach(pendingReaction -> restoredReactions.put(pendingReaction.key(), pendingReaction));
+        restoredReactions.putAll(this.pendingReactions);
+
+        this.pendingMessages = restoredMessages;
+        this.pendingReactions = restoredReactions;
+    }
+
+    private void flush() {
+        Map.Entry<Collection<PendingMessage>, Collection<PendingReaction>> drained = this.drain();
+        Collection<PendingMessage> messages = drained.getKey();
+        Collection<PendingReaction> reactions = drained.getValue();
+        if (messages.isEmpty() && reactions.isEmpty()) {
+            return;
+        }
+
+        // replication shares the bulk database pool with indexing, flushing waits for a free slot and until the batch is written
+        CompletableFuture<Void> replication;
+        try {
+            replication = CompletableFuture.runAsync(
+                    () -> this.replicate(messages, reactions), DatabaseExecutor.getBlockingExecutor(DatabaseExecutor.Workload.BULK)
+            );
+        } catch (RejectedExecutionException exception) {
+            // changes are kept for the next flush instead of being dropped
+            this.restore(messages, reactions);
+            MessageReplicationBuffer.LOGGER.warn(
+                    "Could not submit {} message and {} reaction changes, they are retried with the next flush", messages.size(), reactions.size()
+            );
+            return;
+        }
+
+        replication
+                .exceptionally(throwable -> {
+                    MessageReplicationBuffer.LOGGER.error(
+                            "Could not replicate {} message and {} reaction changes: \"{}\"", messages.size(), reactions.size(), throwable.getMessage()
+                    );
+                    return null;
+                })
+                .join();
+    }
+
+    private void replicate(Collection<PendingMessage> messages, Collection<PendingReaction> reactions) {
+        try {
+            this.write(messages, reactions);
+        } catch (RuntimeException exception) {
+            // changes are retried one by one so that a single failing row does not discard the whole batch
+            MessageReplicationBuffer.LOGGER.warn(
+                    "Could not replicate {} message and {} reaction changes at once, retrying them separately: \"{}\"",
+                    messages.size(), reactions.size(), exception.getMessage()
+            );
+            messages.forEach(pendingMessage -> this.writeSeparately(List.of(pendingMessage), List.of()));
+            reactions.forEach(pendingReaction -> this.writeSeparately(List.of(), List.of(pendingReaction)));
+        }
+    }
+
+    private void writeSeparately(Collection<PendingMessage> messages, Collection<PendingReaction> reactions) {
+        try {
+            this.write(messages, reactions);
+        } catch (RuntimeException exception) {
+            MessageReplicationBuffer.LOGGER.error(
+                    "Could not replicate {} message and {} reaction changes: \"{}\"", messages.size(), reactions.size(), exception.getMessage()
+            );
+        }
+    }
+
+    private void write(Collection<PendingMessage> messages, Collection<PendingReaction> reactions) {
+        EmojiCollector.acquireEmojiUsage();
+        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
+        Transaction transaction = session.beginTransaction();
+
+        try {
+            // only indexed channels are replicated, changes in other channels would leave partial history behind
+            Set<Long> watermarkedChannels = ChannelWatermarkDto.findWatermarkedChannels(
+                    Stream.concat(
+                            messages.stream().map(pendingMessage -> pendingMessage.messageDto().getSnowflakeChannel()),
+                            reactions.stream().map(PendingReaction::snowflakeChannel)
+                    ).collect(Collectors.toSet()),
+                    session
+            );
+
+            Map<Long, UserDto> userDtos = new LinkedHashMap<>();
+            List<MessageDto> insertedMessages = new ArrayList<>();
+            List<MessageDto> updatedMessages = new ArrayList<>();
+            List<Long> deletedMessages = new ArrayList<>();
+            for (PendingMessage pendingMessage : messages) {
+                MessageDto messageDto = pendingMessage.messageDto();
+                if (!watermarkedChannels.contains(messageDto.getSnowflakeChannel())) {
+                    continue;
+                }
+
+                switch (pendingMessage.operation()) {
+                    case MessageReplicationBuffer.Operation.INSERT -> {
+                        userDtos.putIfAbsent(messageDto.getSnowflakeMessageAuthor(), new UserDto(messageDto.getSnowflakeMessageAuthor(), pendingMessage.authorIsBot()));
+                        insertedMessages.add(messageDto);
+                    }
+                    case MessageReplicationBuffer.Operation.UPDATE -> updatedMessages.add(messageDto);
+                    case MessageReplicationBuffer.Operation.DELETE -> deletedMessages.add(messageDto.getSnowflakeMessage());
+                }
+            }
+
+            List<ReactionDto> insertedReactions = new ArrayList<>();
+            List<ReactionDto> deletedReactions = new ArrayList<>();
+            for (PendingReaction pendingReaction : reactions) {
+                if (!watermarkedChannels.contains(pendingReaction.snowflakeChannel())) {
+                    continue;
+                }
+
+                if (pendingReaction.operation() == MessageReplicationBuffer.Operation.INSERT) {
+                    long idEmoji = Helper.retrieveIdEmoji(pendingReaction.emoji(), pendingReaction.snowflakeGuild(), session);
+                    userDtos.putIfAbsent(pendingReaction.snowflakeUser(), new UserDto(pendingReaction.snowflakeUser(), pendingReaction.userIsBot()));
+                    insertedReactions.add(new ReactionDto(pendingReaction.snowflakeMessage(), pendingReaction.snowflakeUser(), idEmoji));
+                } else {
+                    // unknown emoji cannot be referenced by any stored reaction, there is nothing to delete
+                    Long idEmoji = Helper.findIdEmoji(pendingReaction.emoji(), session);
+                    if (idEmoji != null) {
+                        deletedReactions.add(new ReactionDto(pendingReaction.snowflakeMessage(), pendingReaction.snowflakeUser(), idEmoji));
+                    }
+                }
+            }
+
+            session.flush();
+            BulkWriter.insertUsers(userDtos.values(), session);
+            BulkWriter.insertMessages(insertedMessages, session);
+            BulkWriter.updateMessages(updatedMessages, session);
+            // reactions to messages which were never indexed fail the foreign key check and are skipped
+            BulkWriter.insertReactions(insertedReactions, session);
+            BulkWriter.deleteReactions(deletedReactions, session);
+            BulkWriter.deleteMessages(deletedMessages, session);
+            transaction.commit();
+        } catch (RuntimeException exception) {
+            if (transaction.isActive()) {
+                transaction.rollback();
+            }
+            throw exception;
+        } finally {
+            session.close();
+            EmojiCollector.releaseEmojiUsage();
+        }
+    }
+
+    private enum Operation { INSERT, UPDATE, DELETE }
+
+    private record PendingMessage(MessageReplicationBuffer.Operation operation, MessageDto messageDto, boolean authorIsBot) {
+        public PendingMessage mergeWith(PendingMessage newer) {
+            if (this.operation == MessageReplicationBuffer.Operation.INSERT && newer.operation == MessageReplicationBuffer.Operation.UPDATE) {
+                // message created and edited within one flush interval is written once with its latest content
+                MessageDto mergedMessageDto = new MessageDto(
+                        this.messageDto.getSnowflakeMessage(), this.messageDto.getSnowflakeMessageAuthor(),
+                        this.messageDto.getSnowflakeChannel(), newer.messageDto.getMessage()
+                );
+                return new PendingMessage(MessageReplicationBuffer.Operation.INSERT, mergedMessageDto, this.authorIsBot);
+            }
+
+            return newer;
+        }
+    }
+
+    private record ReactionKey(long snowflakeMessage, long snowflakeUser, String reactionCode) {}
+
+    private record PendingReaction(
+            MessageReplicationBuffer.Operation operation, long snowflakeMessage, long snowflakeChannel, long snowflakeUser,
+            boolean userIsBot, Emoji emoji, long snowflakeGuild
+    ) {
+        public MessageReplicationBuffer.ReactionKey key() {
+            return new MessageReplicationBuffer.ReactionKey(this.snowflakeMessage, this.snowflakeUser, this.emoji.getAsReactionCode());
+        }
+    }
+}
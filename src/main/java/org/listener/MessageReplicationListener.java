@@ -1,10 +1,101 @@
 package org.listener;
 
+import net.dv8tion.jda.api.entities.Guild;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.User;
+import net.dv8tion.jda.api.events.message.GenericMessageEvent;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
 import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
+import org.Main;
+import org.database.dto.MessageDto;
 import org.jetbrains.annotations.NotNull;
+import org.utility.Constants;
 
 public class MessageReplicationListener extends ListenerAdapter {
+    private final MessageReplicationBuffer replicationBuffer;
+
+    public MessageReplicationListener() {
+        this.replicationBuffer = new MessageReplicationBuffer();
+    }
+
+    private static boolean isReplicatedGuild(Guild guild) {
+        return !Main.COMMAND_LINE_ARGUMENTS.contains(Constants.DEVELOPMENT_ARGUMENT)
+                || guild.getIdLong() == Constants.DEVELOPMENT_SERVER_SNOWFLAKE;
+    }
+
+    private static boolean isReplicatedEvent(GenericMessageEvent event) {
+        return event.isFromGuild() && MessageReplicationListener.isReplicatedGuild(event.getGuild());
+    }
+
+    private static MessageDto createMessageDto(Message message) {
+        return new MessageDto(message.getIdLong(), message.getAuthor().getIdLong(), message.getChannel().getIdLong(), message.getContentRaw());
+    }
+
+    @Override
+    public void onMessageReceived(@NotNull MessageReceivedEvent event) {
+        if (!MessageReplicationListener.isReplicatedEvent(event)) {
+            return;
+        }
+
+        this.replicationBuffer.insertMessage(MessageReplicationListener.createMessageDto(event.getMessage()), event.getAuthor().isBot());
+    }
+
+    @Override
+    public void onMessageUpdate(@NotNull MessageUpdateEvent event) {
+        if (!MessageReplicationListener.isReplicatedEvent(event)) {
+            return;
+        }
+
+        this.replicationBuffer.updateMessage(MessageReplicationListener.createMessageDto(event.getMessage()), event.getAuthor().isBot());
+    }
+
     @Override
-    public void onMessageUpdate(@NotNull MessageUpdateEvent event) {}
+    public void onMessageDelete(@NotNull MessageDeleteEvent event) {
+        if (!MessageReplicationListener.isReplicatedEvent(event)) {
+            return;
+        }
+
+        this.replicationBuffer.deleteMessage(event.getMessageIdLong(), event.getChannel().getIdLong());
+    }
+
+    @Override
+    public void onMessageBulkDelete(@NotNull MessageBulkDeleteEvent event) {
+        if (!MessageReplicationListener.isReplicatedGuild(event.getGuild())) {
+            return;
+        }
+
+        event.getMessageIds().forEach(snowflakeMessage ->
+                this.replicationBuffer.deleteMessage(Long.parseLong(snowflakeMessage), event.getChannel().getIdLong())
+        );
+    }
+
+    @Override
+    public void onMessageReactionAdd(@NotNull MessageReactionAddEvent event) {
+        if (!MessageReplicationListener.isReplicatedEvent(event)) {
+            return;
+        }
+
+        // user is not always cached, reactions of uncached users are stored as non bot reactions
+        User user = event.getUser();
+        this.replicationBuffer.addReaction(
+                event.getMessageIdLong(), event.getChannel().getIdLong(), event.getUserIdLong(), user != null && user.isBot(),
+                event.getEmoji(), event.getGuild().getIdLong()
+        );
+    }
+
+    @Override
+    public void onMessageReactionRemove(@NotNull MessageReactionRemoveEvent event) {
+        if (!MessageReplicationListener.isReplicatedEvent(event)) {
+            return;
+        }
+
+        this.replicationBuffer.removeReaction(
+                event.getMessageIdLong(), event.getChannel().getIdLong(), event.getUserIdLong(), event.getEmoji(), event.getGuild().getIdLong()
+        );
+    }
 }
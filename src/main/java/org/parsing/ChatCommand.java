@@ -151,6 +151,24 @@ public class ChatCommand {
         }
     }
 
+    public static boolean isActionCandidate(String content, String[] registeredActionNames) {
+        // must not allocate, called for every received message before any other processing
+        if (content.length() < ChatCommand.ACTION_PREFIX.length() + 1 || !content.startsWith(ChatCommand.ACTION_PREFIX)) {
+            return false;
+        }
+
+        int nameStartIndex = ChatCommand.ACTION_PREFIX.length();
+        for (String actionName : registeredActionNames) {
+            int nameEndIndex = nameStartIndex + actionName.length();
+            if (content.regionMatches(true, nameStartIndex, actionName, 0, actionName.length())
+                    && (content.length() == nameEndIndex || content.charAt(nameEndIndex) == ' ')) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     private static boolean isValidAction(String content, Map<String, ActionHandler> registeredActionHandlers) {
         if (content.isBlank() || content.length() < ChatCommand.ACTION_PREFIX.length() + 1) {
             return false;
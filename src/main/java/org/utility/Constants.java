@@ -7,6 +7,7 @@ public class Constants {
     public static final Path RESOURCES_PATH = Paths.get("src", "main", "resources");
     public static final String DEVELOPMENT_ARGUMENT = "development";
     public static final String DEVELOPMENT_SERVER_ID = "949756585616474152";
+    public static final long DEVELOPMENT_SERVER_SNOWFLAKE = Long.parseLong(Constants.DEVELOPMENT_SERVER_ID);
 
     public static final int TAG_MAX_LENGTH = 100;
     public static final int QUOTE_MAX_LENGTH = 2_000;
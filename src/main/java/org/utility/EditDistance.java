@@ -0,0 +1,97 @@
+package org.utility;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+public class EditDistance {
+    private static final int WORD_BITS = Long.SIZE;
+    private static final int ASCII_CHARACTERS = 128;
+
+    public static int distance(String first, String second) {
+        return EditDistance.boundedDistance(first, second, Integer.MAX_VALUE);
+    }
+
+    public static int boundedDistance(String first, String second, int maxDistance) {
+        // shorter string is used as the pattern so that it needs as few words as possible
+        String pattern = first.length() <= second.length() ? first : second;
+        String text = first.length() <= second.length() ? second : first;
+        int patternLength = pattern.length();
+        int textLength = text.length();
+
+        if (textLength - patternLength > maxDistance) {
+            return maxDistance + 1;
+        }
+        if (patternLength == 0) {
+            return textLength;
+        }
+
+        int blocksCount = (patternLength + EditDistance.WORD_BITS - 1) / EditDistance.WORD_BITS;
+        long[][] asciiPeq = new long[EditDistance.ASCII_CHARACTERS][];
+        Map<Character, long[]> otherPeq = new HashMap<>();
+        for (int i = 0; i < patternLength; ++i) {
+            char character = pattern.charAt(i);
+            long[] peq;
+            if (character < EditDistance.ASCII_CHARACTERS) {
+                if (asciiPeq[character] == null) {
+                    asciiPeq[character] = new long[blocksCount];
+                }
+                peq = asciiPeq[character];
+            } else {
+                peq = otherPeq.computeIfAbsent(character, _ -> new long[blocksCount]);
+            }
+            peq[i / EditDistance.WORD_BITS] |= 1L << (i % EditDistance.WORD_BITS);
+        }
+
+        // Myers' bit-parallel algorithm in Hyyro's multi word form, vertical deltas of every pattern row are kept as bit vectors
+        long[] positiveVertical = new long[blocksCount];
+        long[] negativeVertical = new long[blocksCount];
+        Arrays.fill(positiveVertical, -1L);
+        long lastRowMask = 1L << ((patternLength - 1) % EditDistance.WORD_BITS);
+        int score = patternLength;
+
+        for (int j = 0; j < textLength; ++j) {
+            char character = text.charAt(j);
+            long[] peq = character < EditDistance.ASCII_CHARACTERS ? asciiPeq[character] : otherPeq.get(character);
+
+            // first row of the matrix grows by one in every column
+            int horizontalIn = 1;
+            for (int block = 0; block < blocksCount; ++block) {
+                long equal = peq == null ? 0 : peq[block];
+                long pv = positiveVertical[block];
+                long mv = negativeVertical[block];
+
+                long xv = equal | mv;
+                if (horizontalIn < 0) {
+                    equal |= 1;
+                }
+                long xh = (((equal & pv) + pv) ^ pv) | equal;
+                long ph = mv | ~(xh | pv);
+                long mh = pv & xh;
+
+                long outMask = block == blocksCount - 1 ? lastRowMask : Long.MIN_VALUE;
+                int horizontalOut = (ph & outMask) != 0 ? 1 : ((mh & outMask) != 0 ? -1 : 0);
+
+                ph <<= 1;
+                mh <<= 1;
+                if (horizontalIn < 0) {
+                    mh |= 1;
+                } else if (horizontalIn > 0) {
+                    ph |= 1;
+                }
+
+                positiveVertical[block] = mh | ~(xv | ph);
+                negativeVertical[block] = ph & xv;
+                horizontalIn = horizontalOut;
+            }
+
+            score += horizontalIn;
+            // last row changes by at most one per remaining column, the threshold can no longer be met
+            if (score - (textLength - j - 1) > maxDistance) {
+                return maxDistance + 1;
+            }
+        }
+
+        return score;
+    }
+}
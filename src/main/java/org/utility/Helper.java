@@ -2,22 +2,25 @@ package org.utility;
 
 import net.dv8tion.jda.api.entities.MessageReaction;
 import net.dv8tion.jda.api.entities.emoji.CustomEmoji;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
-import org.Main;
+import org.database.UnitOfWork;
+import org.database.cache.EmojiCache;
+import org.database.dto.EmojiDto;
 import org.database.dto.GuildDto;
+import org.database.dto.GuildEmojiDto;
 import org.database.dto.UserDto;
 import org.exception.InvalidActionArgumentException;
 import org.hibernate.Session;
-import org.hibernate.Transaction;
 
 import java.math.RoundingMode;
 import java.text.MessageFormat;
-import java.text.Normalizer;
 import java.text.NumberFormat;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.function.Function;
-import java.util.stream.Stream;
 
 public class Helper {
     public static double formatDecimalNumber(double value, int decimalPlaces) {
@@ -41,14 +44,10 @@ public class Helper {
     }
 
     public static List<String> normalizeAndTokenizeString(String value) {
-        String resultString = value.toLowerCase();
-        resultString = Normalizer.normalize(resultString, Normalizer.Form.NFD)
-                .replaceAll("[^\\p{ASCII}]", "");
-
-        return Stream.of(resultString.split(" "))
-                .map(element -> element.replaceAll("[^A-Za-z0-9]", ""))
-                .filter(element -> !element.isBlank())
-                .toList();
+        List<String> tokens = new ArrayList<>();
+        QuoteFingerprinter.forEachToken(value, token -> tokens.add(token.toString()));
+
+        return Collections.unmodifiableList(tokens);
     }
 
     public static<T> String stringifyCollection(Collection<T> collection) {
@@ -92,16 +91,73 @@ public class Helper {
         return reaction.getEmoji() instanceof CustomEmoji;
     }
 
-    public static void refreshGuildAndUser(MessageReceivedEvent event) {
-        Session session = Main.DATABASE_SESSION_FACTORY.openSession();
-        Transaction transaction = session.beginTransaction();
+    public static Long findIdEmoji(Emoji reactionEmoji, Session session) {
+        long cacheVersion = EmojiCache.getVersion();
+
+        if (reactionEmoji instanceof CustomEmoji guildReaction) {
+            Long cachedIdEmoji = EmojiCache.getIdGuildEmoji(guildReaction.getIdLong());
+            if (cachedIdEmoji != null) {
+                return cachedIdEmoji;
+            }
+
+            Long idEmoji = GuildEmojiDto.getIdEmojiBySnowflakeEmoji(guildReaction.getIdLong(), session);
+            if (idEmoji != null) {
+                EmojiCache.putIdGuildEmoji(guildReaction.getIdLong(), idEmoji, cacheVersion);
+            }
+            return idEmoji;
+        }
+
+
+        String emoji = reactionEmoji.getName();
+        Long cachedIdEmoji = EmojiCache.getIdEmoji(emoji);
+        if (cachedIdEmoji != null) {
+            return cachedIdEmoji;
+        }
+
+        List<EmojiDto> emojis = EmojiDto.getEmojiDtosByEmoji(emoji, session);
+        if (emojis.isEmpty()) {
+            return null;
+        }
+
+        assert emojis.size() == 1;
+        long idEmoji = emojis.getFirst().getIdEmoji();
+        EmojiCache.putIdEmoji(emoji, idEmoji, cacheVersion);
+        return idEmoji;
+    }
+
+    public static long retrieveIdEmoji(Emoji reactionEmoji, long snowflakeGuild, Session session) {
+        Long existingIdEmoji = Helper.findIdEmoji(reactionEmoji, session);
+        if (existingIdEmoji != null) {
+            return existingIdEmoji;
+        }
+
+        long cacheVersion = EmojiCache.getVersion();
+        EmojiDto emojiDto = new EmojiDto(reactionEmoji.getName());
+        session.persist(emojiDto);
+
+        if (reactionEmoji instanceof CustomEmoji guildReaction) {
+            // guild emoji rows reference the guild, it has to exist before the emoji is stored
+            GuildDto.refreshGuild(snowflakeGuild, session);
+            GuildEmojiDto guildEmojiDto = new GuildEmojiDto(
+                    emojiDto.getIdEmoji(), snowflakeGuild, guildReaction.getIdLong(), guildReaction.isAnimated()
+            );
+            session.persist(guildEmojiDto);
+            EmojiCache.putIdGuildEmojiOnCommit(guildReaction.getIdLong(), emojiDto.getIdEmoji(), cacheVersion, session);
+        } else {
+            EmojiCache.putIdEmojiOnCommit(reactionEmoji.getName(), emojiDto.getIdEmoji(), cacheVersion, session);
+        }
+
+        return emojiDto.getIdEmoji();
+    }
+
+    public static void refreshGuildAndUser(MessageReceivedEvent event, UnitOfWork unitOfWork) {
+        // known guilds and users do not need the database, the unit of work stays unenlisted
+        if (!GuildDto.isKnownGuild(event.getGuild().getIdLong())) {
+            GuildDto.refreshGuild(event.getGuild().getIdLong(), unitOfWork.getSession());
+        }
 
-        try {
-            GuildDto.refreshGuild(event.getGuild().getId(), session);
-            UserDto.refreshUser(event.getAuthor().getId(), event.getAuthor().isBot(), session);
-        } finally {
-            transaction.commit();
-            session.close();
+        if (!UserDto.isKnownUser(event.getAuthor().getIdLong())) {
+            UserDto.refreshUser(event.getAuthor().getIdLong(), event.getAuthor().isBot(), unitOfWork.getSession());
         }
     }
 
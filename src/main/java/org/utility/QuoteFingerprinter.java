@@ -0,0 +1,97 @@
+package org.utility;
+
+import com.dynatrace.hash4j.hashing.Hasher64;
+import com.dynatrace.hash4j.hashing.Hashing;
+import com.dynatrace.hash4j.similarity.ElementHashProvider;
+import com.dynatrace.hash4j.similarity.SimilarityHashPolicy;
+import com.dynatrace.hash4j.similarity.SimilarityHasher;
+import com.dynatrace.hash4j.similarity.SimilarityHashing;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+public class QuoteFingerprinter {
+    private static final SimilarityHashPolicy POLICY;
+    private static final Hasher64 TOKEN_HASHER;
+    private static final ThreadLocal<QuoteFingerprinter.State> STATE;
+
+    static {
+        POLICY = SimilarityHashing.superMinHash(1024, 1);
+        TOKEN_HASHER = Hashing.komihash5_0();
+        // similarity hashers keep internal buffers and are not thread safe, each thread reuses its own one
+        STATE = ThreadLocal.withInitial(QuoteFingerprinter.State::new);
+    }
+
+    public static SimilarityHashPolicy getPolicy() {
+        return QuoteFingerprinter.POLICY;
+    }
+
+    public static byte[] computeSignature(String value) {
+        QuoteFingerprinter.State state = QuoteFingerprinter.STATE.get();
+        state.tokensCount = 0;
+
+        QuoteFingerprinter.forEachToken(value, state.token, token -> {
+            if (state.tokenHashes.length == state.tokensCount) {
+                state.tokenHashes = Arrays.copyOf(state.tokenHashes, state.tokensCount * 2);
+            }
+            state.tokenHashes[state.tokensCount++] = QuoteFingerprinter.TOKEN_HASHER.hashCharsToLong(token);
+        });
+
+        long[] tokenHashes = state.tokenHashes;
+        return state.hasher.compute(ElementHashProvider.ofFunction(index -> tokenHashes[index], state.tokensCount));
+    }
+
+    public static void forEachToken(String value, Consumer<CharSequence> tokenConsumer) {
+        QuoteFingerprinter.forEachToken(value, new StringBuilder(), tokenConsumer);
+    }
+
+    private static void forEachToken(String value, StringBuilder token, Consumer<CharSequence> tokenConsumer) {
+        String normalizedValue = QuoteFingerprinter.normalize(value);
+
+        // tokens are separated by spaces, any character other than an ASCII letter or digit is dropped
+        token.setLength(0);
+        for (int i = 0; i < normalizedValue.length(); ++i) {
+            char character = normalizedValue.charAt(i);
+            if (character == ' ') {
+                QuoteFingerprinter.emitToken(token, tokenConsumer);
+            } else if ((character >= 'a' && character <= 'z') || (character >= 'A' && character <= 'Z') || (character >= '0' && character <= '9')) {
+                token.append(character);
+            }
+        }
+        QuoteFingerprinter.emitToken(token, tokenConsumer);
+    }
+
+    private static void emitToken(StringBuilder token, Consumer<CharSequence> tokenConsumer) {
+        if (!token.isEmpty()) {
+            tokenConsumer.accept(token);
+            token.setLength(0);
+        }
+    }
+
+    private static String normalize(String value) {
+        String lowercaseValue = value.toLowerCase();
+        for (int i = 0; i < lowercaseValue.length(); ++i) {
+            if (lowercaseValue.charAt(i) > 0x7F) {
+                // accents are decomposed so that their base letters are kept, remaining non ASCII characters are dropped later
+                return Normalizer.normalize(lowercaseValue, Normalizer.Form.NFD);
+            }
+        }
+
+        return lowercaseValue;
+    }
+
+    private static class State {
+        private final SimilarityHasher hasher;
+        private final StringBuilder token;
+        private long[] tokenHashes;
+        private int tokensCount;
+
+        public State() {
+            this.hasher = QuoteFingerprinter.POLICY.createHasher();
+            this.token = new StringBuilder();
+            this.tokenHashes = new long[64];
+            this.tokensCount = 0;
+        }
+    }
+}
@@ -62,6 +62,7 @@ CREATE TABLE IF NOT EXISTS message (
 	message TEXT NOT NULL,
 	PRIMARY KEY (snowflake_message),
 	UNIQUE INDEX snowflake_messages_UNIQUE (snowflake_message ASC) VISIBLE,
+	INDEX snowflake_channel_message_idx (snowflake_channel ASC, snowflake_message ASC) VISIBLE,
     INDEX fk_message_user1_idx (snowflake_message_author ASC) VISIBLE,
     CONSTRAINT fk_message_user1 FOREIGN KEY (snowflake_message_author) REFERENCES user (snowflake_user)
 );
@@ -97,3 +98,13 @@ CREATE TABLE IF NOT EXISTS guild_emoji (
 	CONSTRAINT fk_guild_emoji_emoji1 FOREIGN KEY (id_emoji) REFERENCES emoji (id_emoji),
 	CONSTRAINT fk_guild_emoji_guild1 FOREIGN KEY (snowflake_guild) REFERENCES guild (snowflake_guild)
 );
+
+CREATE TABLE IF NOT EXISTS channel_watermark (
+	snowflake_channel BIGINT NOT NULL,
+	snowflake_guild BIGINT NOT NULL,
+	snowflake_last_message BIGINT NOT NULL,
+	date_modified DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+	PRIMARY KEY (snowflake_channel),
+	INDEX fk_channel_watermark_guild1_idx (snowflake_guild ASC) VISIBLE,
+	CONSTRAINT fk_channel_watermark_guild1 FOREIGN KEY (snowflake_guild) REFERENCES guild (snowflake_guild)
+);
@@ -0,0 +1,100 @@
+package org.database.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class QuoteIdBitmapTest {
+    private static final int CONTAINER_RANGE = 1 << 16;
+
+    private static long randomId(Random random) {
+        // ids are spread over a few containers, dense containers cross the array to bitmap threshold
+        long key = random.nextInt(2);
+        return switch (random.nextInt(3)) {
+            case 0 -> key * QuoteIdBitmapTest.CONTAINER_RANGE + random.nextInt(QuoteIdBitmapTest.CONTAINER_RANGE);
+            case 1 -> key * QuoteIdBitmapTest.CONTAINER_RANGE + random.nextInt(64);
+            default -> (1L << 40) + random.nextInt(QuoteIdBitmapTest.CONTAINER_RANGE * 2);
+        };
+    }
+
+    private static TreeSet<Long> randomIds(Random random, int count) {
+        TreeSet<Long> ids = new TreeSet<>();
+        for (int i = 0; i < count; ++i) {
+            ids.add(QuoteIdBitmapTest.randomId(random));
+        }
+
+        return ids;
+    }
+
+    private static QuoteIdBitmap toBitmap(Random random, TreeSet<Long> ids) {
+        // ids are added out of order and some of them twice
+        List<Long> shuffledIds = new ArrayList<>(ids);
+        shuffledIds.addAll(shuffledIds.subList(0, shuffledIds.size() / 10));
+        Collections.shuffle(shuffledIds, random);
+
+        QuoteIdBitmap bitmap = new QuoteIdBitmap();
+        shuffledIds.forEach(bitmap::add);
+        return bitmap;
+    }
+
+    private static void assertSameIds(TreeSet<Long> expected, QuoteIdBitmap actual) {
+        List<Long> expectedIds = new ArrayList<>(expected);
+
+        assertEquals(expectedIds, actual.toList());
+        assertEquals(expectedIds.size(), actual.getCardinality());
+        for (int rank = 0; rank < expectedIds.size(); rank += 1 + rank / 16) {
+            assertEquals(expectedIds.get(rank), actual.select(rank), "rank " + rank);
+        }
+
+        assertThrows(IndexOutOfBoundsException.class, () -> actual.select(expectedIds.size()));
+    }
+
+    @Test
+    void addedIdsMatchTreeSet() {
+        Random random = new Random(1);
+        for (int i = 0; i < 50; ++i) {
+            TreeSet<Long> ids = QuoteIdBitmapTest.randomIds(random, random.nextInt(40_000));
+
+            QuoteIdBitmapTest.assertSameIds(ids, QuoteIdBitmapTest.toBitmap(random, ids));
+        }
+    }
+
+    @Test
+    void intersectionsAndUnionsMatchTreeSet() {
+        Random random = new Random(2);
+        for (int i = 0; i < 100; ++i) {
+            TreeSet<Long> firstIds = QuoteIdBitmapTest.randomIds(random, random.nextInt(40_000));
+            TreeSet<Long> secondIds = QuoteIdBitmapTest.randomIds(random, random.nextInt(40_000));
+            QuoteIdBitmap first = QuoteIdBitmapTest.toBitmap(random, firstIds);
+            QuoteIdBitmap second = QuoteIdBitmapTest.toBitmap(random, secondIds);
+
+            TreeSet<Long> intersection = new TreeSet<>(firstIds);
+            intersection.retainAll(secondIds);
+            TreeSet<Long> union = new TreeSet<>(firstIds);
+            union.addAll(secondIds);
+
+            QuoteIdBitmapTest.assertSameIds(intersection, QuoteIdBitmap.and(first, second));
+            QuoteIdBitmapTest.assertSameIds(union, QuoteIdBitmap.or(first, second));
+            // operands are left untouched by the operations
+            QuoteIdBitmapTest.assertSameIds(firstIds, first);
+            QuoteIdBitmapTest.assertSameIds(secondIds, second);
+        }
+    }
+
+    @Test
+    void emptyBitmapsMatchTreeSet() {
+        TreeSet<Long> ids = QuoteIdBitmapTest.randomIds(new Random(3), 10_000);
+        QuoteIdBitmap bitmap = QuoteIdBitmapTest.toBitmap(new Random(3), ids);
+
+        QuoteIdBitmapTest.assertSameIds(new TreeSet<>(), new QuoteIdBitmap());
+        QuoteIdBitmapTest.assertSameIds(new TreeSet<>(), QuoteIdBitmap.and(bitmap, new QuoteIdBitmap()));
+        QuoteIdBitmapTest.assertSameIds(ids, QuoteIdBitmap.or(new QuoteIdBitmap(), bitmap));
+    }
+}
@@ -0,0 +1,147 @@
+package org.utility;
+
+import info.debatty.java.stringsimilarity.NormalizedLevenshtein;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EditDistanceTest {
+    private static final String ASCII_ALPHABET = "abcdefgh -_0123";
+    private static final String MIXED_ALPHABET = "abcé€漢字ßø😀";
+    private static final NormalizedLevenshtein NORMALIZED_LEVENSHTEIN = new NormalizedLevenshtein();
+
+    private static String randomString(Random random, String alphabet, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; ++i) {
+            builder.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+
+        return builder.toString();
+    }
+
+    private static String mutate(Random random, String alphabet, String original, int editsCount) {
+        StringBuilder builder = new StringBuilder(original);
+        for (int i = 0; i < editsCount; ++i) {
+            int position = random.nextInt(builder.length() + 1);
+            switch (random.nextInt(3)) {
+                case 0 -> builder.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                case 1 -> {
+                    if (position < builder.length()) {
+                        builder.deleteCharAt(position);
+                    }
+                }
+                default -> {
+                    if (position < builder.length()) {
+                        builder.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                    }
+                }
+            }
+        }
+
+        return builder.toString();
+    }
+
+    private static void assertMatchesNormalizedLevenshtein(String first, String second) {
+        int maxLength = Math.max(first.length(), second.length());
+        double expected = EditDistanceTest.NORMALIZED_LEVENSHTEIN.distance(first, second);
+        int distance = EditDistance.distance(first, second);
+
+        assertEquals(expected, maxLength == 0 ? 0 : (double)distance / maxLength, "\"" + first + "\" and \"" + second + "\"");
+    }
+
+    private static void assertBoundaries(String first, String second) {
+        int distance = EditDistance.distance(first, second);
+
+        // distance is exact up to the bound, above it only maxDistance + 1 is reported
+        for (int maxDistance = Math.max(0, distance - 3); maxDistance <= distance + 3; ++maxDistance) {
+            int expected = maxDistance >= distance ? distance : maxDistance + 1;
+            assertEquals(expected, EditDistance.boundedDistance(first, second, maxDistance), "\"" + first + "\" and \"" + second + "\" with bound " + maxDistance);
+        }
+    }
+
+    @Test
+    void randomStringsMatchNormalizedLevenshtein() {
+        Random random = new Random(1);
+        for (int i = 0; i < 5_000; ++i) {
+            String first = EditDistanceTest.randomString(random, EditDistanceTest.ASCII_ALPHABET, random.nextInt(40));
+            String second = random.nextBoolean()
+                    ? EditDistanceTest.mutate(random, EditDistanceTest.ASCII_ALPHABET, first, random.nextInt(6))
+                    : EditDistanceTest.randomString(random, EditDistanceTest.ASCII_ALPHABET, random.nextInt(40));
+
+            EditDistanceTest.assertMatchesNormalizedLevenshtein(first, second);
+        }
+    }
+
+    @Test
+    void tagsUpToMaximumLengthMatchNormalizedLevenshtein() {
+        Random random = new Random(2);
+        for (int i = 0; i < 2_000; ++i) {
+            String first = EditDistanceTest.randomString(random, EditDistanceTest.ASCII_ALPHABET, 1 + random.nextInt(Constants.TAG_MAX_LENGTH));
+            String second = EditDistanceTest.mutate(random, EditDistanceTest.ASCII_ALPHABET, first, random.nextInt(10));
+            if (second.length() > Constants.TAG_MAX_LENGTH) {
+                second = second.substring(0, Constants.TAG_MAX_LENGTH);
+            }
+
+            EditDistanceTest.assertMatchesNormalizedLevenshtein(first, second);
+        }
+
+        String longestTag = "a".repeat(Constants.TAG_MAX_LENGTH);
+        EditDistanceTest.assertMatchesNormalizedLevenshtein(longestTag, "b".repeat(Constants.TAG_MAX_LENGTH));
+        EditDistanceTest.assertMatchesNormalizedLevenshtein(longestTag, longestTag);
+        EditDistanceTest.assertMatchesNormalizedLevenshtein(longestTag, "");
+    }
+
+    @Test
+    void multiWordPatternsMatchNormalizedLevenshtein() {
+        Random random = new Random(3);
+        for (int i = 0; i < 1_000; ++i) {
+            // both strings are longer than one 64 bit word, the carries between words are exercised
+            String first = EditDistanceTest.randomString(random, EditDistanceTest.ASCII_ALPHABET, 65 + random.nextInt(200));
+            String second = random.nextBoolean()
+                    ? EditDistanceTest.mutate(random, EditDistanceTest.ASCII_ALPHABET, first, random.nextInt(20))
+                    : EditDistanceTest.randomString(random, EditDistanceTest.ASCII_ALPHABET, 65 + random.nextInt(200));
+
+            EditDistanceTest.assertMatchesNormalizedLevenshtein(first, second);
+        }
+
+        EditDistanceTest.assertMatchesNormalizedLevenshtein("a".repeat(64), "a".repeat(65));
+        EditDistanceTest.assertMatchesNormalizedLevenshtein("ab".repeat(64), "ba".repeat(64));
+    }
+
+    @Test
+    void nonAsciiStringsMatchNormalizedLevenshtein() {
+        Random random = new Random(4);
+        for (int i = 0; i < 3_000; ++i) {
+            String first = EditDistanceTest.randomString(random, EditDistanceTest.MIXED_ALPHABET, random.nextInt(150));
+            String second = random.nextBoolean()
+                    ? EditDistanceTest.mutate(random, EditDistanceTest.MIXED_ALPHABET, first, random.nextInt(8))
+                    : EditDistanceTest.randomString(random, EditDistanceTest.MIXED_ALPHABET, random.nextInt(150));
+
+            EditDistanceTest.assertMatchesNormalizedLevenshtein(first, second);
+        }
+
+        EditDistanceTest.assertMatchesNormalizedLevenshtein("émoji 😀", "emoji 😃");
+        EditDistanceTest.assertMatchesNormalizedLevenshtein("漢字", "字漢");
+    }
+
+    @Test
+    void boundedDistanceIsExactUpToMaxDistance() {
+        Random random = new Random(5);
+        for (int i = 0; i < 2_000; ++i) {
+            String alphabet = random.nextBoolean() ? EditDistanceTest.ASCII_ALPHABET : EditDistanceTest.MIXED_ALPHABET;
+            String first = EditDistanceTest.randomString(random, alphabet, random.nextInt(150));
+            String second = EditDistanceTest.mutate(random, alphabet, first, random.nextInt(12));
+
+            EditDistanceTest.assertBoundaries(first, second);
+        }
+
+        EditDistanceTest.assertBoundaries("", "");
+        EditDistanceTest.assertBoundaries("", "abc");
+        EditDistanceTest.assertBoundaries("kitten", "sitting");
+        assertEquals(1, EditDistance.boundedDistance("a", "abcdef", 0));
+        assertEquals(5, EditDistance.boundedDistance("a", "abcdef", 4));
+        assertEquals(5, EditDistance.boundedDistance("a", "abcdef", 5));
+    }
+}
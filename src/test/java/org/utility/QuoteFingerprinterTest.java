@@ -0,0 +1,71 @@
+package org.utility;
+
+import org.junit.jupiter.api.Test;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QuoteFingerprinterTest {
+    private static final String ALPHABET = "aAzZ09 é È ñ ç ß æ ø İ ı \u212A ﬁ Ａ \u0301\u00A0\t\n.,!?'-_😀漢字Ωω";
+
+    // tokenization used by Helper.normalizeAndTokenizeString before the fingerprinter replaced it
+    private static List<String> legacyTokenize(String value) {
+        String resultString = value.toLowerCase();
+        resultString = Normalizer.normalize(resultString, Normalizer.Form.NFD)
+                .replaceAll("[^\\p{ASCII}]", "");
+
+        return Stream.of(resultString.split(" "))
+                .map(element -> element.replaceAll("[^A-Za-z0-9]", ""))
+                .filter(element -> !element.isBlank())
+                .toList();
+    }
+
+    private static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        QuoteFingerprinter.forEachToken(value, token -> tokens.add(token.toString()));
+        return tokens;
+    }
+
+    private static void assertSameTokens(String value) {
+        assertEquals(QuoteFingerprinterTest.legacyTokenize(value), QuoteFingerprinterTest.tokenize(value), "\"" + value + "\"");
+    }
+
+    @Test
+    void quotesAreTokenizedLikeLegacyRegex() {
+        QuoteFingerprinterTest.assertSameTokens("");
+        QuoteFingerprinterTest.assertSameTokens("   ");
+        QuoteFingerprinterTest.assertSameTokens("Hello, World!");
+        QuoteFingerprinterTest.assertSameTokens("  leading and  double   spaces ");
+        QuoteFingerprinterTest.assertSameTokens("Crème brûlée à la française");
+        QuoteFingerprinterTest.assertSameTokens("Straße İstanbul ıi Ωmega");
+        QuoteFingerprinterTest.assertSameTokens("tabs\tand\nnew lines");
+        QuoteFingerprinterTest.assertSameTokens("emoji 😀 between words 😀words");
+        QuoteFingerprinterTest.assertSameTokens("don't re-use snake_case");
+    }
+
+    @Test
+    void everyBmpCharacterIsTokenizedLikeLegacyRegex() {
+        for (char character = 0; character < Character.MAX_VALUE; ++character) {
+            QuoteFingerprinterTest.assertSameTokens("a" + character + "b " + character + " c" + character);
+        }
+    }
+
+    @Test
+    void randomQuotesAreTokenizedLikeLegacyRegex() {
+        Random random = new Random(1);
+        for (int i = 0; i < 20_000; ++i) {
+            StringBuilder quote = new StringBuilder();
+            int length = random.nextInt(80);
+            for (int j = 0; j < length; ++j) {
+                quote.append(QuoteFingerprinterTest.ALPHABET.charAt(random.nextInt(QuoteFingerprinterTest.ALPHABET.length())));
+            }
+
+            QuoteFingerprinterTest.assertSameTokens(quote.toString());
+        }
+    }
+}